@@ -0,0 +1,215 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.World;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.config.ConfigException;
+import pascal.taie.ir.IR;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.AnalysisException;
+import pascal.taie.util.Timer;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+
+/**
+ * Creates and executes analyses based on given analysis plan.
+ */
+public class AnalysisManager {
+
+    private static final Logger logger = LogManager.getLogger(AnalysisManager.class);
+
+    /**
+     * Name of the option which specifies the number of threads used to
+     * run a method (or class) analysis. 0 (or absent) means using the
+     * common pool, and 1 means running the analysis sequentially.
+     */
+    private static final String PARALLELISM = "parallelism";
+
+    private List<JClass> classScope;
+
+    private List<JMethod> methodScope;
+
+    public void execute(List<AnalysisConfig> analyses) {
+        analyses.forEach(config ->
+                Timer.runAndCount(() -> runAnalysis(config), config.getId()));
+    }
+
+    private void runAnalysis(AnalysisConfig config) {
+        try {
+            Class<?> clazz = Class.forName(config.getAnalysisClass());
+            Constructor<?> ctor = clazz.getConstructor(AnalysisConfig.class);
+            Object analysis = ctor.newInstance(config);
+            if (analysis instanceof ProgramAnalysis) {
+                runProgramAnalysis((ProgramAnalysis) analysis);
+            } else if (analysis instanceof ClassAnalysis) {
+                runClassAnalysis((ClassAnalysis) analysis);
+            } else if (analysis instanceof MethodAnalysis) {
+                runMethodAnalysis((MethodAnalysis) analysis);
+            } else {
+                logger.warn(clazz + " is not an analysis");
+            }
+        } catch (ClassNotFoundException | NoSuchMethodException |
+                 InstantiationException | IllegalAccessException |
+                 InvocationTargetException e) {
+            throw new AnalysisException("Failed to initialize " +
+                    config.getAnalysisClass(), e);
+        }
+    }
+
+    private void runProgramAnalysis(ProgramAnalysis analysis) {
+        Object result = analysis.analyze();
+        if (result != null) {
+            World.get().storeResult(analysis.getId(), result);
+        }
+    }
+
+    private void runClassAnalysis(ClassAnalysis analysis) {
+        List<Object> results = analyzeInParallel(getClassScope(),
+                analysis::analyze, getParallelism(analysis));
+        List<JClass> classes = getClassScope();
+        for (int i = 0; i < classes.size(); ++i) {
+            Object result = results.get(i);
+            if (result != null) {
+                classes.get(i).storeResult(analysis.getId(), result);
+            }
+        }
+    }
+
+    private List<JClass> getClassScope() {
+        if (classScope == null) {
+            String scope = World.get().getOptions().getScope();
+            classScope = switch (scope) {
+                case "app" -> World.get()
+                        .getClassHierarchy()
+                        .applicationClasses()
+                        .toList();
+                case "all" -> World.get()
+                        .getClassHierarchy()
+                        .allClasses()
+                        .toList();
+                // call graph construction is unavailable in this project
+                case "reachable" -> throw new ConfigException(
+                        "Unsupported scope option: " + scope);
+                default -> throw new ConfigException(
+                        "Unexpected scope option: " + scope);
+            };
+            logger.info("{} classes in scope ({}) of class analyses",
+                    classScope.size(), scope);
+        }
+        return classScope;
+    }
+
+    private void runMethodAnalysis(MethodAnalysis analysis) {
+        List<JMethod> methods = getMethodScope();
+        List<Object> results = analyzeInParallel(methods,
+                m -> analysis.analyze(m.getIR()), getParallelism(analysis));
+        // the results are stored after all methods have been analyzed,
+        // in the order of method scope, so that the resulting IRs do not
+        // depend on how the methods were scheduled among threads
+        for (int i = 0; i < methods.size(); ++i) {
+            Object result = results.get(i);
+            if (result != null) {
+                IR ir = methods.get(i).getIR();
+                ir.storeResult(analysis.getId(), result);
+            }
+        }
+    }
+
+    private List<JMethod> getMethodScope() {
+        if (methodScope == null) {
+            String scope = World.get().getOptions().getScope();
+            methodScope = switch (scope) {
+                case "app", "all", "reachable" -> getClassScope()
+                        .stream()
+                        .map(JClass::getDeclaredMethods)
+                        .flatMap(Collection::stream)
+                        .filter(m -> !m.isAbstract() && !m.isNative())
+                        .toList();
+                default -> throw new ConfigException(
+                        "Unexpected scope option: " + scope);
+            };
+            logger.info("{} methods in scope ({}) of method analyses",
+                    methodScope.size(), scope);
+        }
+        return methodScope;
+    }
+
+    /**
+     * @return the number of threads specified for given analysis.
+     */
+    private static int getParallelism(Analysis analysis) {
+        Object parallelism = analysis.getOptions().get(PARALLELISM);
+        if (parallelism == null) {
+            return 0;
+        }
+        if (!(parallelism instanceof Integer n) || n < 0) {
+            throw new ConfigException("Invalid " + PARALLELISM + " of " +
+                    analysis.getId() + ": " + parallelism);
+        }
+        return n;
+    }
+
+    /**
+     * Applies the analysis to each element with given parallelism.
+     * The elements are independent of each other, e.g., each method
+     * has its own IR, thus they can be analyzed concurrently.
+     *
+     * @return the results in the same order as {@code elements}.
+     */
+    static <E> List<Object> analyzeInParallel(
+            List<E> elements, Function<E, Object> analyze,
+            int parallelism) {
+        if (parallelism == 1) {
+            return elements.stream().map(analyze).toList();
+        }
+        ForkJoinPool pool = parallelism == 0 ?
+                ForkJoinPool.commonPool() : new ForkJoinPool(parallelism);
+        try {
+            return pool.submit(() -> elements.parallelStream()
+                    .map(analyze)
+                    .toList()).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AnalysisException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) {
+                throw re;
+            }
+            throw new AnalysisException(e.getCause());
+        } finally {
+            if (pool != ForkJoinPool.commonPool()) {
+                pool.shutdown();
+            }
+        }
+    }
+}
@@ -39,7 +39,8 @@ public abstract class AbstractDataflowAnalysis<Node, Fact>
 
     protected AbstractDataflowAnalysis(AnalysisConfig config) {
         super(config);
-        solver = Solver.makeSolver(this);
+        solver = Solver.makeSolver(this,
+                Solver.ResultForm.of(getOptions().getString("result")));
     }
 
     @Override
@@ -27,11 +27,14 @@ import pascal.taie.analysis.dataflow.analysis.constprop.CPFact;
 import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
 import pascal.taie.analysis.dataflow.analysis.constprop.Value;
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.fact.NodeResult;
 import pascal.taie.analysis.dataflow.fact.SetFact;
+import pascal.taie.analysis.dataflow.solver.DataflowQuery;
 import pascal.taie.analysis.graph.cfg.CFG;
 import pascal.taie.analysis.graph.cfg.CFGBuilder;
 import pascal.taie.analysis.graph.cfg.Edge;
 import pascal.taie.config.AnalysisConfig;
+import pascal.taie.config.ConfigException;
 import pascal.taie.ir.IR;
 import pascal.taie.ir.exp.ArithmeticExp;
 import pascal.taie.ir.exp.ArrayAccess;
@@ -53,8 +56,50 @@ public class DeadCodeDetection extends MethodAnalysis {
 
     public static final String ID = "deadcode";
 
+    /**
+     * Constant propagation performed within this analysis in fused mode,
+     * otherwise null.
+     */
+    private final ConstantPropagation constprop;
+
+    /**
+     * Live variable analysis performed within this analysis in fused mode,
+     * otherwise null.
+     */
+    private final LiveVariableAnalysis livevar;
+
+    /**
+     * Whether to answer the facts of constant propagation on demand by
+     * {@link DataflowQuery} in fused mode, so that only the statements
+     * which the queried statements depend on are analyzed.
+     */
+    private final boolean query;
+
     public DeadCodeDetection(AnalysisConfig config) {
         super(config);
+        if (getOptions().getBooleanOrDefault("fused", false)) {
+            // in fused mode, the facts of the two analyses are computed
+            // per method right before they are needed, and are dropped
+            // once the method has been analyzed. Both analyses keep only
+            // the facts produced by their transfer functions, and their
+            // options are given by the options of this analysis.
+            constprop = new ConstantPropagation(new AnalysisConfig(
+                    ConstantPropagation.ID, "result", "compact",
+                    "edge-refine", getOptions().getBoolean("edge-refine"),
+                    "sparse", getOptions().getBoolean("sparse")));
+            livevar = new LiveVariableAnalysis(new AnalysisConfig(
+                    LiveVariableAnalysis.ID, "result", "compact",
+                    "strongly", getOptions().getBoolean("strongly")));
+            query = getOptions().getBooleanOrDefault("query", false);
+            if (query && getOptions().getBoolean("sparse")) {
+                throw new ConfigException(
+                        "Options query and sparse of " + ID + " are exclusive");
+            }
+        } else {
+            constprop = null;
+            livevar = null;
+            query = false;
+        }
     }
 
     @Override
@@ -62,11 +107,17 @@ public class DeadCodeDetection extends MethodAnalysis {
         // obtain CFG
         CFG<Stmt> cfg = ir.getResult(CFGBuilder.ID);
         // obtain result of constant propagation
-        DataflowResult<Stmt, CPFact> constants =
-                ir.getResult(ConstantPropagation.ID);
+        NodeResult<Stmt, CPFact> constants;
+        if (constprop == null) {
+            constants = ir.getResult(ConstantPropagation.ID);
+        } else if (query) {
+            constants = new DataflowQuery<>(constprop, cfg);
+        } else {
+            constants = constprop.analyze(ir);
+        }
         // obtain result of live variable analysis
-        DataflowResult<Stmt, SetFact<Var>> liveVars =
-                ir.getResult(LiveVariableAnalysis.ID);
+        DataflowResult<Stmt, SetFact<Var>> liveVars = livevar != null ?
+                livevar.analyze(ir) : ir.getResult(LiveVariableAnalysis.ID);
         // keep statements (dead code) sorted in the resulting set
         Set<Stmt> deadCode = new TreeSet<>(Comparator.comparing(Stmt::getIndex));
         // TODO - finish me
@@ -0,0 +1,518 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis.constprop;
+
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.DefinitionStmt;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.util.collection.SetQueue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+
+/**
+ * Sparse constant propagation, which propagates the {@link Value}s
+ * only along def-use chains instead of carrying a {@link CPFact}
+ * through every statement.
+ * <p>
+ * The definitions of int variables are put into SSA form: phi definitions
+ * are placed at the iterated dominance frontiers of the definitions, and
+ * each use is connected to the unique definition reaching it by renaming
+ * along the dominator tree. The value of each definition is then computed
+ * by a work-list algorithm, where a definition is re-evaluated only when
+ * the value of a definition it uses changes. The lattice values of the
+ * variables, as well as the evaluation of expressions, are given by
+ * {@link ConstantPropagation}, thus the facts derived from the result
+ * are the same as the ones computed by the dense analysis.
+ * <p>
+ * To keep the semantics of the dense analysis for the nodes unreachable
+ * from the entry, a virtual root which defines no variables is added as
+ * the predecessor of the entry and of each unreachable node.
+ */
+class SparseConstantPropagation {
+
+    private final ConstantPropagation analysis;
+
+    private final CFG<Stmt> cfg;
+
+    /**
+     * Index of the virtual root, i.e., maximum index of the CFG nodes + 1.
+     */
+    private final int root;
+
+    /**
+     * CFG nodes indexed by {@link Stmt#getIndex()}.
+     */
+    private final Stmt[] nodes;
+
+    /**
+     * Successors and predecessors of each node, including the virtual root.
+     */
+    private final List<List<Integer>> succs;
+
+    private final List<List<Integer>> preds;
+
+    /**
+     * Immediate dominator of each node, including the virtual root
+     * which dominates itself.
+     */
+    private final int[] idom;
+
+    /**
+     * Definitions at each node, linked by {@link Def#next}. The entry
+     * node holds the definitions of the boundary values, and any other
+     * node holds at most one definition.
+     */
+    private final Def[] defsAt;
+
+    /**
+     * Phi definitions at each node, linked by {@link Def#next}.
+     */
+    private final Def[] phisAt;
+
+    SparseConstantPropagation(ConstantPropagation analysis, CFG<Stmt> cfg) {
+        this.analysis = analysis;
+        this.cfg = cfg;
+        this.root = cfg.getNodes()
+                .stream()
+                .mapToInt(Stmt::getIndex)
+                .max()
+                .orElse(-1) + 1;
+        this.nodes = new Stmt[root];
+        cfg.forEach(node -> nodes[node.getIndex()] = node);
+        this.succs = new ArrayList<>(root + 1);
+        this.preds = new ArrayList<>(root + 1);
+        for (int i = 0; i <= root; ++i) {
+            succs.add(new ArrayList<>(2));
+            preds.add(new ArrayList<>(2));
+        }
+        this.idom = new int[root + 1];
+        this.defsAt = new Def[root];
+        this.phisAt = new Def[root];
+    }
+
+    DataflowResult<Stmt, CPFact> solve() {
+        buildGraph();
+        computeDominators();
+        List<Def> defs = collectDefs();
+        placePhis(defs);
+        rename();
+        propagate(defs);
+        return new Result();
+    }
+
+    /**
+     * Copies the edges of the CFG and connects the virtual root to
+     * the entry and to the nodes unreachable from the entry.
+     */
+    private void buildGraph() {
+        for (Stmt node : cfg) {
+            for (Stmt succ : cfg.getSuccsOf(node)) {
+                addEdge(node.getIndex(), succ.getIndex());
+            }
+        }
+        int entry = cfg.getEntry().getIndex();
+        boolean[] reachable = new boolean[root];
+        reachable[entry] = true;
+        List<Integer> stack = new ArrayList<>(List.of(entry));
+        while (!stack.isEmpty()) {
+            for (int succ : succs.get(stack.remove(stack.size() - 1))) {
+                if (!reachable[succ]) {
+                    reachable[succ] = true;
+                    stack.add(succ);
+                }
+            }
+        }
+        addEdge(root, entry);
+        for (int i = 0; i < root; ++i) {
+            if (nodes[i] != null && !reachable[i]) {
+                addEdge(root, i);
+            }
+        }
+    }
+
+    private void addEdge(int source, int target) {
+        succs.get(source).add(target);
+        preds.get(target).add(source);
+    }
+
+    /**
+     * Computes the immediate dominators by the algorithm of Cooper,
+     * Harvey and Kennedy, "A Simple, Fast Dominance Algorithm".
+     */
+    private void computeDominators() {
+        int[] postNumber = new int[root + 1];
+        List<Integer> postOrder = new ArrayList<>(root + 1);
+        boolean[] visited = new boolean[root + 1];
+        int[] nextSucc = new int[root + 1];
+        List<Integer> stack = new ArrayList<>(List.of(root));
+        visited[root] = true;
+        while (!stack.isEmpty()) {
+            int node = stack.get(stack.size() - 1);
+            List<Integer> nodeSuccs = succs.get(node);
+            if (nextSucc[node] < nodeSuccs.size()) {
+                int succ = nodeSuccs.get(nextSucc[node]++);
+                if (!visited[succ]) {
+                    visited[succ] = true;
+                    stack.add(succ);
+                }
+            } else {
+                stack.remove(stack.size() - 1);
+                postNumber[node] = postOrder.size();
+                postOrder.add(node);
+            }
+        }
+        Arrays.fill(idom, -1);
+        idom[root] = root;
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            // traverse in reverse post-order, skipping the root
+            for (int i = postOrder.size() - 2; i >= 0; --i) {
+                int node = postOrder.get(i);
+                int newIdom = -1;
+                for (int pred : preds.get(node)) {
+                    if (idom[pred] != -1) {
+                        newIdom = newIdom == -1 ? pred :
+                                intersect(pred, newIdom, postNumber);
+                    }
+                }
+                if (idom[node] != newIdom) {
+                    idom[node] = newIdom;
+                    changed = true;
+                }
+            }
+        }
+    }
+
+    private int intersect(int b1, int b2, int[] postNumber) {
+        while (b1 != b2) {
+            while (postNumber[b1] < postNumber[b2]) {
+                b1 = idom[b1];
+            }
+            while (postNumber[b2] < postNumber[b1]) {
+                b2 = idom[b2];
+            }
+        }
+        return b1;
+    }
+
+    /**
+     * Collects the definitions of int variables. The boundary values,
+     * e.g., the ones of parameters, are regarded as definitions at
+     * the entry node, which are not evaluated, thus they are not
+     * in the returned list.
+     */
+    private List<Def> collectDefs() {
+        List<Def> defs = new ArrayList<>();
+        Stmt entry = cfg.getEntry();
+        CPFact boundary = analysis.newBoundaryFact(cfg);
+        for (Var var : boundary.keySet()) {
+            Def def = new Def(entry, var, false);
+            def.value = boundary.get(var);
+            def.next = defsAt[entry.getIndex()];
+            defsAt[entry.getIndex()] = def;
+        }
+        for (Stmt stmt : cfg) {
+            if (stmt instanceof DefinitionStmt<?, ?> defStmt &&
+                    defStmt.getLValue() instanceof Var var &&
+                    ConstantPropagation.canHoldInt(var)) {
+                Def def = new Def(stmt, var, false);
+                defs.add(def);
+                defsAt[stmt.getIndex()] = def;
+            }
+        }
+        return defs;
+    }
+
+    /**
+     * Places the phi definitions of each variable at the iterated
+     * dominance frontiers of its definitions, and adds them to defs.
+     */
+    private void placePhis(List<Def> defs) {
+        // dominance frontiers, computed from the join nodes
+        List<List<Integer>> frontiers = new ArrayList<>(root + 1);
+        for (int i = 0; i <= root; ++i) {
+            frontiers.add(new ArrayList<>(0));
+        }
+        for (int node = 0; node < root; ++node) {
+            if (preds.get(node).size() > 1) {
+                for (int pred : preds.get(node)) {
+                    for (int runner = pred; runner != idom[node];
+                         runner = idom[runner]) {
+                        List<Integer> frontier = frontiers.get(runner);
+                        if (frontier.isEmpty() ||
+                                frontier.get(frontier.size() - 1) != node) {
+                            frontier.add(node);
+                        }
+                    }
+                }
+            }
+        }
+        // definition sites of each variable
+        int nVars = cfg.getIR().getVars().size();
+        List<List<Integer>> defSites = new ArrayList<>(nVars);
+        for (int i = 0; i < nVars; ++i) {
+            defSites.add(new ArrayList<>(0));
+        }
+        for (int node = 0; node < root; ++node) {
+            for (Def def = defsAt[node]; def != null; def = def.next) {
+                defSites.get(def.var.getIndex()).add(node);
+            }
+        }
+        // the variable (index + 1) for which each node has a phi
+        // or has been added to the work-list
+        int[] hasPhi = new int[root];
+        int[] added = new int[root];
+        for (Var var : cfg.getIR().getVars()) {
+            int mark = var.getIndex() + 1;
+            List<Integer> workList = new ArrayList<>(defSites.get(var.getIndex()));
+            workList.forEach(node -> added[node] = mark);
+            while (!workList.isEmpty()) {
+                int node = workList.remove(workList.size() - 1);
+                for (int target : frontiers.get(node)) {
+                    if (hasPhi[target] != mark) {
+                        hasPhi[target] = mark;
+                        Def phi = new Def(nodes[target], var, true);
+                        phi.next = phisAt[target];
+                        phisAt[target] = phi;
+                        defs.add(phi);
+                        if (added[target] != mark) {
+                            added[target] = mark;
+                            workList.add(target);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Connects each use of int variables, in the right-hand sides of
+     * definitions and in phi definitions, to the definition reaching it,
+     * by traversing the dominator tree and keeping the current definition
+     * of each variable.
+     */
+    private void rename() {
+        List<List<Integer>> children = new ArrayList<>(root + 1);
+        for (int i = 0; i <= root; ++i) {
+            children.add(new ArrayList<>(2));
+        }
+        for (int node = 0; node < root; ++node) {
+            if (idom[node] != -1) {
+                children.get(idom[node]).add(node);
+            }
+        }
+        Def[] current = new Def[cfg.getIR().getVars().size()];
+        // a non-negative element visits a node, and a negative one ~node
+        // restores the current definitions after visiting its subtree
+        List<Integer> stack = new ArrayList<>(List.of(root));
+        while (!stack.isEmpty()) {
+            int node = stack.remove(stack.size() - 1);
+            if (node < 0) {
+                node = ~node;
+                for (Def def = defsAt[node]; def != null; def = def.next) {
+                    current[def.var.getIndex()] = def.shadowed;
+                }
+                for (Def phi = phisAt[node]; phi != null; phi = phi.next) {
+                    current[phi.var.getIndex()] = phi.shadowed;
+                }
+                continue;
+            }
+            if (node != root) {
+                for (Def phi = phisAt[node]; phi != null; phi = phi.next) {
+                    push(current, phi);
+                }
+                Def def = defsAt[node];
+                if (def != null && def.node instanceof DefinitionStmt<?, ?>) {
+                    for (Var use : getUsedVars(def.node)) {
+                        addOperand(current, use, def);
+                    }
+                }
+                for (; def != null; def = def.next) {
+                    push(current, def);
+                }
+                stack.add(~node);
+            }
+            for (int succ : succs.get(node)) {
+                for (Def phi = phisAt[succ]; phi != null; phi = phi.next) {
+                    addOperand(current, phi.var, phi);
+                }
+            }
+            stack.addAll(children.get(node));
+        }
+    }
+
+    private static void push(Def[] current, Def def) {
+        def.shadowed = current[def.var.getIndex()];
+        current[def.var.getIndex()] = def;
+    }
+
+    /**
+     * Adds the current definition of given variable to the operands
+     * of user. A variable without definition has value UNDEF,
+     * which is the identity of meet, thus it is not added.
+     */
+    private static void addOperand(Def[] current, Var var, Def user) {
+        Def def = current[var.getIndex()];
+        if (def != null) {
+            user.operands.add(def);
+            def.users.add(user);
+        }
+    }
+
+    private void propagate(List<Def> defs) {
+        Queue<Def> workList = new SetQueue<>();
+        workList.addAll(defs);
+        while (!workList.isEmpty()) {
+            Def def = workList.poll();
+            Value value;
+            if (def.phi) {
+                value = Value.getUndef();
+                for (Def operand : def.operands) {
+                    value = analysis.meetValue(value, operand.value);
+                }
+            } else {
+                CPFact in = new CPFact();
+                def.operands.forEach(operand ->
+                        in.update(operand.var, operand.value));
+                value = ConstantPropagation.evaluate(
+                        ((DefinitionStmt<?, ?>) def.node).getRValue(), in);
+            }
+            if (!value.equals(def.value)) {
+                def.value = value;
+                workList.addAll(def.users);
+            }
+        }
+    }
+
+    private static List<Var> getUsedVars(Stmt stmt) {
+        List<Var> vars = new ArrayList<>();
+        stmt.getUses().forEach(use -> {
+            if (use instanceof Var var && ConstantPropagation.canHoldInt(var)) {
+                vars.add(var);
+            }
+        });
+        return vars;
+    }
+
+    /**
+     * A definition of an int variable, which is either a definition
+     * statement, a boundary value at the entry node, or a phi definition.
+     */
+    private static class Def {
+
+        private final Stmt node;
+
+        private final Var var;
+
+        private final boolean phi;
+
+        /**
+         * Next definition at the same node.
+         */
+        private Def next;
+
+        /**
+         * Definition of the same variable which is shadowed by this one
+         * during renaming.
+         */
+        private Def shadowed;
+
+        /**
+         * Definitions used by this definition.
+         */
+        private final List<Def> operands = new ArrayList<>(2);
+
+        /**
+         * Definitions which use this definition.
+         */
+        private final List<Def> users = new ArrayList<>(2);
+
+        private Value value = Value.getUndef();
+
+        private Def(Stmt node, Var var, boolean phi) {
+            this.node = node;
+            this.var = var;
+            this.phi = phi;
+        }
+    }
+
+    /**
+     * Result of sparse constant propagation. Unless set explicitly,
+     * the facts are derived on demand from the values of the definitions
+     * reaching the node, which are found along the dominator tree.
+     */
+    private class Result extends DataflowResult<Stmt, CPFact> {
+
+        private Result() {
+            super(new HashMap<>(), new HashMap<>());
+        }
+
+        @Override
+        public CPFact getInFact(Stmt node) {
+            CPFact fact = super.getInFact(node);
+            return fact != null ? fact : collect(node, false);
+        }
+
+        @Override
+        public CPFact getOutFact(Stmt node) {
+            CPFact fact = super.getOutFact(node);
+            return fact != null ? fact : collect(node, true);
+        }
+
+        /**
+         * Collects the values of the nearest definitions of the variables
+         * which dominate the IN (or OUT) fact of given node.
+         */
+        private CPFact collect(Stmt node, boolean out) {
+            CPFact fact = new CPFact();
+            Set<Var> found = new HashSet<>();
+            int index = node.getIndex();
+            if (out) {
+                collect(defsAt[index], fact, found);
+            }
+            collect(phisAt[index], fact, found);
+            for (int i = idom[index]; i != root && i != -1; i = idom[i]) {
+                collect(defsAt[i], fact, found);
+                collect(phisAt[i], fact, found);
+            }
+            return fact;
+        }
+
+        private void collect(Def defs, CPFact fact, Set<Var> found) {
+            for (Def def = defs; def != null; def = def.next) {
+                if (found.add(def.var)) {
+                    fact.update(def.var, def.value);
+                }
+            }
+        }
+    }
+}
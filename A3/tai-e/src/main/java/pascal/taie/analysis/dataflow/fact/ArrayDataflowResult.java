@@ -0,0 +1,77 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.fact;
+
+import java.util.Map;
+import java.util.function.ToIntFunction;
+
+/**
+ * A {@link DataflowResult} which keeps the facts in arrays indexed by
+ * the nodes, e.g., {@link pascal.taie.ir.stmt.Stmt#getIndex()}.
+ * Compared to the map-based result, it avoids the hash map entries
+ * and node keys held for every node.
+ *
+ * @param <Node> type of nodes
+ * @param <Fact> type of data-flow facts
+ */
+public class ArrayDataflowResult<Node, Fact> extends DataflowResult<Node, Fact> {
+
+    private final ToIntFunction<? super Node> indexer;
+
+    private final Object[] inFacts;
+
+    private final Object[] outFacts;
+
+    /**
+     * @param indexer  maps each node to its index
+     * @param capacity the number of indexes, i.e., maximum index + 1
+     */
+    public ArrayDataflowResult(ToIntFunction<? super Node> indexer, int capacity) {
+        super(Map.of(), Map.of());
+        this.indexer = indexer;
+        this.inFacts = new Object[capacity];
+        this.outFacts = new Object[capacity];
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Fact getInFact(Node node) {
+        return (Fact) inFacts[indexer.applyAsInt(node)];
+    }
+
+    @Override
+    public void setInFact(Node node, Fact fact) {
+        inFacts[indexer.applyAsInt(node)] = fact;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Fact getOutFact(Node node) {
+        return (Fact) outFacts[indexer.applyAsInt(node)];
+    }
+
+    @Override
+    public void setOutFact(Node node, Fact fact) {
+        outFacts[indexer.applyAsInt(node)] = fact;
+    }
+}
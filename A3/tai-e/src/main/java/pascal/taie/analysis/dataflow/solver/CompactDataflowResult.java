@@ -0,0 +1,115 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.solver;
+
+import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.Edge;
+
+import java.util.Map;
+import java.util.function.ToIntFunction;
+
+/**
+ * A {@link DataflowResult} which only keeps the facts produced by node
+ * transfer functions, i.e., the out (in) facts for forward (backward)
+ * analysis, in an array indexed by the nodes. The other facts are derived
+ * on demand by meeting the kept facts of the predecessors (successors),
+ * thus setting them has no effect.
+ *
+ * @param <Node> type of nodes
+ * @param <Fact> type of data-flow facts
+ */
+class CompactDataflowResult<Node, Fact> extends DataflowResult<Node, Fact> {
+
+    private final DataflowAnalysis<Node, Fact> analysis;
+
+    private final CFG<Node> cfg;
+
+    private final ToIntFunction<? super Node> indexer;
+
+    private final Object[] facts;
+
+    CompactDataflowResult(DataflowAnalysis<Node, Fact> analysis, CFG<Node> cfg,
+                          ToIntFunction<? super Node> indexer, int capacity) {
+        super(Map.of(), Map.of());
+        this.analysis = analysis;
+        this.cfg = cfg;
+        this.indexer = indexer;
+        this.facts = new Object[capacity];
+    }
+
+    @Override
+    public Fact getInFact(Node node) {
+        return analysis.isForward() ? meet(node) : getFact(node);
+    }
+
+    @Override
+    public void setInFact(Node node, Fact fact) {
+        if (!analysis.isForward()) {
+            facts[indexer.applyAsInt(node)] = fact;
+        }
+    }
+
+    @Override
+    public Fact getOutFact(Node node) {
+        return analysis.isForward() ? getFact(node) : meet(node);
+    }
+
+    @Override
+    public void setOutFact(Node node, Fact fact) {
+        if (analysis.isForward()) {
+            facts[indexer.applyAsInt(node)] = fact;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Fact getFact(Node node) {
+        return (Fact) facts[indexer.applyAsInt(node)];
+    }
+
+    /**
+     * Derives the fact of given node from the kept facts of its
+     * neighbors, in the same way as the solver computes it.
+     */
+    private Fact meet(Node node) {
+        boolean forward = analysis.isForward();
+        if (forward ? cfg.isEntry(node) : cfg.isExit(node)) {
+            // the boundary node has no neighbors, and its transfer
+            // keeps the boundary fact unchanged
+            return getFact(node);
+        }
+        Fact result = analysis.newInitialFact();
+        for (Edge<Node> edge : forward ?
+                cfg.getInEdgesOf(node) : cfg.getOutEdgesOf(node)) {
+            Fact fact = getFact(forward ? edge.getSource() : edge.getTarget());
+            if (fact != null) {
+                if (analysis.needTransferEdge(edge)) {
+                    fact = analysis.transferEdge(edge, fact);
+                }
+                analysis.meetInto(fact, result);
+            }
+        }
+        return result;
+    }
+}
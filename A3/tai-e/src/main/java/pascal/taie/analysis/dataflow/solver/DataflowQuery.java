@@ -0,0 +1,208 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.solver;
+
+import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.fact.NodeResult;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.Edge;
+import pascal.taie.util.collection.SetQueue;
+import pascal.taie.util.collection.Sets;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Queue;
+import java.util.Set;
+
+/**
+ * Answers queries for the data-flow facts of single nodes, without
+ * solving the analysis for the whole CFG.
+ * <p>
+ * The fact of a node only depends on the nodes which can reach it, i.e.,
+ * its predecessors for forward analysis, or its successors for backward
+ * analysis, transitively. To answer a query, the nodes are explored from
+ * the queried node against the direction of the analysis, and the analysis
+ * is solved only on the explored slice of the CFG. As the slice contains
+ * all nodes which the facts of its nodes depend on, the facts computed for
+ * the slice are the same as the ones computed by {@link Solver} for the
+ * whole CFG, and they are cached, thus later queries only explore and solve
+ * the nodes which are not covered by the slices solved so far.
+ * <p>
+ * For example, whether variable {@code x} is constant at statement
+ * {@code s} can be queried by
+ * {@code query.getInFact(s).get(x).isConstant()} with a query of
+ * constant propagation. Dead code detection uses it for the facts of
+ * constant propagation with options {@code fused:true;query:true}.
+ *
+ * @param <Node> type of CFG nodes
+ * @param <Fact> type of data-flow facts
+ */
+public class DataflowQuery<Node, Fact> implements NodeResult<Node, Fact> {
+
+    private final DataflowAnalysis<Node, Fact> analysis;
+
+    private final CFG<Node> cfg;
+
+    private final boolean forward;
+
+    /**
+     * Facts of the nodes in the solved slices.
+     */
+    private final DataflowResult<Node, Fact> result = new DataflowResult<>();
+
+    private final Set<Node> solved = Sets.newSet();
+
+    private long queries;
+
+    private long hits;
+
+    public DataflowQuery(DataflowAnalysis<Node, Fact> analysis, CFG<Node> cfg) {
+        this.analysis = analysis;
+        this.cfg = cfg;
+        this.forward = analysis.isForward();
+    }
+
+    /**
+     * @return the data-flow fact flowing into given node.
+     */
+    @Override
+    public Fact getInFact(Node node) {
+        solve(node);
+        return result.getInFact(node);
+    }
+
+    /**
+     * @return the data-flow fact flowing out of given node.
+     */
+    @Override
+    public Fact getOutFact(Node node) {
+        solve(node);
+        return result.getOutFact(node);
+    }
+
+    /**
+     * Computes the facts of the slice of given node, if they have not
+     * been computed.
+     */
+    private void solve(Node node) {
+        ++queries;
+        if (solved.contains(node)) {
+            ++hits;
+            return;
+        }
+        Set<Node> slice = collectSlice(node);
+        initialize(slice);
+        Queue<Node> workList = new SetQueue<>();
+        workList.addAll(slice);
+        while (!workList.isEmpty()) {
+            Node n = workList.poll();
+            if (isBoundary(n)) {
+                continue;
+            }
+            Fact fact = meet(n);
+            Fact target;
+            if (forward) {
+                result.setInFact(n, fact);
+                target = result.getOutFact(n);
+            } else {
+                result.setOutFact(n, fact);
+                target = result.getInFact(n);
+            }
+            if (analysis.transferNode(n, fact, target)) {
+                for (Node succ : forward ? cfg.getSuccsOf(n) : cfg.getPredsOf(n)) {
+                    if (slice.contains(succ)) {
+                        workList.add(succ);
+                    }
+                }
+            }
+        }
+        solved.addAll(slice);
+    }
+
+    /**
+     * @return the nodes which can reach given node against the direction
+     * of the analysis, excluding the ones in the solved slices.
+     */
+    private Set<Node> collectSlice(Node node) {
+        Set<Node> slice = Sets.newSet();
+        Deque<Node> stack = new ArrayDeque<>();
+        stack.push(node);
+        while (!stack.isEmpty()) {
+            Node n = stack.pop();
+            if (!solved.contains(n) && slice.add(n)) {
+                (forward ? cfg.getPredsOf(n) : cfg.getSuccsOf(n))
+                        .forEach(stack::push);
+            }
+        }
+        return slice;
+    }
+
+    private void initialize(Set<Node> slice) {
+        for (Node n : slice) {
+            if (isBoundary(n)) {
+                Fact boundary = analysis.newBoundaryFact(cfg);
+                if (forward) {
+                    result.setInFact(n, analysis.newInitialFact());
+                    result.setOutFact(n, boundary);
+                } else {
+                    result.setInFact(n, boundary);
+                    result.setOutFact(n, analysis.newInitialFact());
+                }
+            } else {
+                result.setInFact(n, analysis.newInitialFact());
+                result.setOutFact(n, analysis.newInitialFact());
+            }
+        }
+    }
+
+    private boolean isBoundary(Node node) {
+        return forward ? cfg.isEntry(node) : cfg.isExit(node);
+    }
+
+    /**
+     * Meets the facts flowing into given node from its predecessors
+     * (successors for backward analysis).
+     */
+    private Fact meet(Node node) {
+        Fact fact = analysis.newInitialFact();
+        for (Edge<Node> edge : forward ?
+                cfg.getInEdgesOf(node) : cfg.getOutEdgesOf(node)) {
+            Fact nodeFact = forward ?
+                    result.getOutFact(edge.getSource()) :
+                    result.getInFact(edge.getTarget());
+            if (analysis.needTransferEdge(edge)) {
+                nodeFact = analysis.transferEdge(edge, nodeFact);
+            }
+            analysis.meetInto(nodeFact, fact);
+        }
+        return fact;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d queries (%d answered from cache), " +
+                "%d of %d nodes solved", queries, hits,
+                solved.size(), cfg.getNumberOfNodes());
+    }
+}
@@ -23,8 +23,14 @@
 package pascal.taie.analysis.dataflow.solver;
 
 import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
+import pascal.taie.analysis.dataflow.fact.ArrayDataflowResult;
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
 import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.config.ConfigException;
+import pascal.taie.util.Indexable;
+
+import javax.annotation.Nullable;
+import java.util.function.ToIntFunction;
 
 /**
  * Base class for data-flow analysis solver, which provides common
@@ -37,8 +43,15 @@ public abstract class Solver<Node, Fact> {
 
     protected final DataflowAnalysis<Node, Fact> analysis;
 
+    private final ResultForm resultForm;
+
     protected Solver(DataflowAnalysis<Node, Fact> analysis) {
+        this(analysis, ResultForm.MAP);
+    }
+
+    protected Solver(DataflowAnalysis<Node, Fact> analysis, ResultForm resultForm) {
         this.analysis = analysis;
+        this.resultForm = resultForm;
     }
 
     /**
@@ -46,7 +59,16 @@ public abstract class Solver<Node, Fact> {
      */
     public static <Node, Fact> Solver<Node, Fact> makeSolver(
             DataflowAnalysis<Node, Fact> analysis) {
-        return new WorkListSolver<>(analysis);
+        return makeSolver(analysis, ResultForm.MAP);
+    }
+
+    /**
+     * Static factory method to create a new solver for given analysis,
+     * which keeps the analysis results in given form.
+     */
+    public static <Node, Fact> Solver<Node, Fact> makeSolver(
+            DataflowAnalysis<Node, Fact> analysis, ResultForm resultForm) {
+        return new WorkListSolver<>(analysis, resultForm);
     }
 
     /**
@@ -67,7 +89,7 @@ public abstract class Solver<Node, Fact> {
      * @return the initialized data-flow result
      */
     private DataflowResult<Node, Fact> initialize(CFG<Node> cfg) {
-        DataflowResult<Node, Fact> result = new DataflowResult<>();
+        DataflowResult<Node, Fact> result = newResult(cfg);
         if (analysis.isForward()) {
             initializeForward(cfg, result);
         } else {
@@ -76,6 +98,26 @@ public abstract class Solver<Node, Fact> {
         return result;
     }
 
+    /**
+     * Creates an empty data-flow result in the form of this solver.
+     * Array-based forms require the nodes to be {@link Indexable},
+     * otherwise, the map-based result is used.
+     */
+    private DataflowResult<Node, Fact> newResult(CFG<Node> cfg) {
+        if (resultForm != ResultForm.MAP && cfg.getEntry() instanceof Indexable) {
+            ToIntFunction<Node> indexer = node -> ((Indexable) node).getIndex();
+            int capacity = cfg.getNodes()
+                    .stream()
+                    .mapToInt(indexer)
+                    .max()
+                    .orElse(-1) + 1;
+            return resultForm == ResultForm.ARRAY ?
+                    new ArrayDataflowResult<>(indexer, capacity) :
+                    new CompactDataflowResult<>(analysis, cfg, indexer, capacity);
+        }
+        return new DataflowResult<>();
+    }
+
     protected void initializeForward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
         // TODO - finish me
     }
@@ -98,4 +140,45 @@ public abstract class Solver<Node, Fact> {
     protected abstract void doSolveForward(CFG<Node> cfg, DataflowResult<Node, Fact> result);
 
     protected abstract void doSolveBackward(CFG<Node> cfg, DataflowResult<Node, Fact> result);
+
+    /**
+     * Forms in which the solver keeps the data-flow results.
+     */
+    public enum ResultForm {
+
+        /**
+         * Keeps both in and out facts in hash maps keyed by nodes.
+         */
+        MAP,
+
+        /**
+         * Keeps both in and out facts in arrays indexed by nodes.
+         */
+        ARRAY,
+
+        /**
+         * Keeps only the facts produced by node transfer functions in an
+         * array indexed by nodes, and derives the others on demand.
+         */
+        COMPACT;
+
+        /**
+         * Converts the value of analysis option "result" to the result form.
+         *
+         * @param option one of "map", "array" and "compact",
+         *               or null for the default form (map).
+         */
+        public static ResultForm of(@Nullable String option) {
+            if (option == null) {
+                return MAP;
+            }
+            return switch (option) {
+                case "map" -> MAP;
+                case "array" -> ARRAY;
+                case "compact" -> COMPACT;
+                default -> throw new ConfigException(
+                        "Unexpected result form: " + option);
+            };
+        }
+    }
 }
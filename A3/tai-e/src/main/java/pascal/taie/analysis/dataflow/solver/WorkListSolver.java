@@ -28,8 +28,8 @@ import pascal.taie.analysis.graph.cfg.CFG;
 
 class WorkListSolver<Node, Fact> extends Solver<Node, Fact> {
 
-    WorkListSolver(DataflowAnalysis<Node, Fact> analysis) {
-        super(analysis);
+    WorkListSolver(DataflowAnalysis<Node, Fact> analysis, ResultForm resultForm) {
+        super(analysis, resultForm);
     }
 
     @Override
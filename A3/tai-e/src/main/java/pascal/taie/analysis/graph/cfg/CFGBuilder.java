@@ -0,0 +1,153 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.cfg;
+
+import pascal.taie.analysis.MethodAnalysis;
+import pascal.taie.analysis.exception.CatchAnalysis;
+import pascal.taie.analysis.exception.CatchResult;
+import pascal.taie.analysis.exception.ThrowAnalysis;
+import pascal.taie.analysis.exception.ThrowResult;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.stmt.Goto;
+import pascal.taie.ir.stmt.If;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.Nop;
+import pascal.taie.ir.stmt.Return;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.ir.stmt.SwitchStmt;
+import pascal.taie.ir.stmt.Throw;
+import pascal.taie.language.type.ClassType;
+
+import java.util.Set;
+import java.util.function.Predicate;
+
+public class CFGBuilder extends MethodAnalysis {
+
+    public static final String ID = "cfg";
+
+    private final boolean noException;
+
+    private final boolean isDump;
+
+    private final boolean isCompact;
+
+    public CFGBuilder(AnalysisConfig config) {
+        super(config);
+        noException = getOptions().getString("exception").equals("none");
+        isDump = getOptions().getBoolean("dump");
+        isCompact = getOptions().getBooleanOrDefault("compact", false);
+    }
+
+    @Override
+    public CFG<Stmt> analyze(IR ir) {
+        StmtCFG cfg = new StmtCFG(ir);
+        Nop entry = new Nop();
+        entry.setIndex(ir.getStmts().size());
+        cfg.setEntry(entry);
+        Nop exit = new Nop();
+        exit.setIndex(ir.getStmts().size() + 1);
+        cfg.setExit(exit);
+        buildNormalEdges(cfg);
+        if (!noException) {
+            buildExceptionalEdges(cfg);
+        }
+        if (isDump) {
+            CFGDumper.dumpDotFile(cfg);
+        }
+        return isCompact ? new CompactCFG(cfg) : cfg;
+    }
+
+    private static void buildNormalEdges(StmtCFG cfg) {
+        IR ir = cfg.getIR();
+        cfg.addEdge(new Edge<>(Edge.Kind.ENTRY, cfg.getEntry(), ir.getStmt(0)));
+        for (int i = 0; i < ir.getStmts().size(); ++i) {
+            Stmt curr = ir.getStmt(i);
+            cfg.addNode(curr);
+            if (curr instanceof Goto) {
+                cfg.addEdge(new Edge<>(Edge.Kind.GOTO,
+                        curr, ((Goto) curr).getTarget()));
+            } else if (curr instanceof If) {
+                cfg.addEdge(new Edge<>(Edge.Kind.IF_TRUE,
+                        curr, ((If) curr).getTarget()));
+                cfg.addEdge(new Edge<>(Edge.Kind.IF_FALSE,
+                        curr, ir.getStmt(i + 1)));
+            } else if (curr instanceof SwitchStmt switchStmt) {
+                switchStmt.getCaseTargets().forEach(pair -> {
+                    int caseValue = pair.first();
+                    Stmt target = pair.second();
+                    cfg.addEdge(new SwitchCaseEdge<>(
+                            switchStmt, target, caseValue));
+                });
+                cfg.addEdge(new Edge<>(Edge.Kind.SWITCH_DEFAULT,
+                        switchStmt, switchStmt.getDefaultTarget()));
+            } else if (curr instanceof Return) {
+                cfg.addEdge(new Edge<>(Edge.Kind.RETURN, curr, cfg.getExit()));
+            } else if (curr.canFallThrough() &&
+                    i + 1 < ir.getStmts().size()) {
+                cfg.addEdge(new Edge<>(Edge.Kind.FALL_THROUGH,
+                        curr, ir.getStmt(i + 1)));
+            }
+        }
+    }
+
+    private static void buildExceptionalEdges(StmtCFG cfg) {
+        IR ir = cfg.getIR();
+        ThrowResult throwResult = ir.getResult(ThrowAnalysis.ID);
+        CatchResult result = CatchAnalysis.analyze(ir, throwResult);
+        ir.forEach(stmt -> {
+            // build edges for implicit exceptions
+            result.getCaughtImplicitOf(stmt).forEachSet((catcher, exceptions) ->
+                    cfg.getInEdgesOf(stmt)
+                            .stream()
+                            .filter(Predicate.not(Edge::isExceptional))
+                            .map(Edge::getSource)
+                            .forEach(pred -> cfg.addEdge(new ExceptionalEdge<>(
+                                    Edge.Kind.CAUGHT_EXCEPTION,
+                                    pred, catcher, exceptions))));
+            Set<ClassType> uncaught = result.getUncaughtImplicitOf(stmt);
+            if (!uncaught.isEmpty()) {
+                cfg.getInEdgesOf(stmt)
+                        .stream()
+                        .filter(Predicate.not(Edge::isExceptional))
+                        .map(Edge::getSource)
+                        .forEach(pred -> cfg.addEdge(new ExceptionalEdge<>(
+                                Edge.Kind.UNCAUGHT_EXCEPTION,
+                                pred, cfg.getExit(), uncaught)));
+            }
+            // build edges for explicit exceptions
+            if (stmt instanceof Throw || stmt instanceof Invoke) {
+                result.getCaughtExplicitOf(stmt).forEachSet((catcher, exceptions) ->
+                        cfg.addEdge(new ExceptionalEdge<>(
+                                Edge.Kind.CAUGHT_EXCEPTION,
+                                stmt, catcher, exceptions)));
+                Set<ClassType> uncaughtEx = result.getUncaughtExplicitOf(stmt);
+                if (!uncaughtEx.isEmpty()) {
+                    cfg.addEdge(new ExceptionalEdge<>(
+                            Edge.Kind.UNCAUGHT_EXCEPTION,
+                            stmt, cfg.getExit(), uncaughtEx));
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,345 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.cfg;
+
+import pascal.taie.ir.IR;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.ClassType;
+
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.IntFunction;
+
+/**
+ * CFG in compressed sparse row (CSR) form, which is keyed by
+ * {@link Stmt#getIndex()} (the entry and exit nodes are indexed right
+ * after the statements of the IR).
+ * <p>
+ * The out edges of all nodes are laid out in one sequence ordered by
+ * their sources, and each edge is identified by its position (slot) in
+ * the sequence. The targets and kinds of the edges are kept in int and
+ * byte arrays indexed by the slots, along with side arrays for the case
+ * values of switch-case edges and the exceptions of exceptional edges.
+ * The in edges are kept as the slots grouped by their targets. Thus,
+ * no per-node sets are retained, and the {@link Edge}s returned by
+ * {@link #getInEdgesOf(Stmt)} and {@link #getOutEdgesOf(Stmt)} are
+ * created when they are first queried and then cached by their slots,
+ * so that the edges which are never queried are not allocated. The edges
+ * are equal to the ones of the CFG which this CFG is built from.
+ */
+public class CompactCFG implements CFG<Stmt> {
+
+    private static final Edge.Kind[] KINDS = Edge.Kind.values();
+
+    private final IR ir;
+
+    private final Stmt entry;
+
+    private final Stmt exit;
+
+    /**
+     * Nodes indexed by {@link Stmt#getIndex()}.
+     */
+    private final Stmt[] nodes;
+
+    /**
+     * The out edges of node i are at slots
+     * {@code outOffsets[i]..outOffsets[i + 1]}.
+     */
+    private final int[] outOffsets;
+
+    /**
+     * Source index of the edge at each slot.
+     */
+    private final int[] sources;
+
+    /**
+     * Target index of the edge at each slot.
+     */
+    private final int[] targets;
+
+    /**
+     * Ordinal of the kind of the edge at each slot.
+     */
+    private final byte[] kinds;
+
+    /**
+     * Case value of the switch-case edge at each slot,
+     * or null if this CFG has no switch-case edges.
+     */
+    private final int[] caseValues;
+
+    /**
+     * Exceptions of the exceptional edge at each slot,
+     * or null if this CFG has no exceptional edges.
+     */
+    private final Set<ClassType>[] exceptions;
+
+    /**
+     * The in edges of node i are at slots
+     * {@code inSlots[inOffsets[i]..inOffsets[i + 1]]}.
+     */
+    private final int[] inOffsets;
+
+    private final int[] inSlots;
+
+    /**
+     * Edge at each slot, which is created on demand.
+     * Racing creations are harmless as the created edges are equal.
+     */
+    private final Edge<Stmt>[] edges;
+
+    CompactCFG(CFG<Stmt> cfg) {
+        this.ir = cfg.getIR();
+        this.entry = cfg.getEntry();
+        this.exit = cfg.getExit();
+        int nNodes = ir.getStmts().size() + 2;
+        this.nodes = new Stmt[nNodes];
+        this.outOffsets = new int[nNodes + 1];
+        this.inOffsets = new int[nNodes + 1];
+        boolean hasSwitchCase = false;
+        boolean hasExceptional = false;
+        for (Stmt node : cfg) {
+            nodes[node.getIndex()] = node;
+            for (Edge<Stmt> edge : cfg.getOutEdgesOf(node)) {
+                ++outOffsets[node.getIndex() + 1];
+                ++inOffsets[edge.getTarget().getIndex() + 1];
+                hasSwitchCase |= edge.isSwitchCase();
+                hasExceptional |= edge.isExceptional();
+            }
+        }
+        for (int i = 0; i < nNodes; ++i) {
+            outOffsets[i + 1] += outOffsets[i];
+            inOffsets[i + 1] += inOffsets[i];
+        }
+        int nEdges = outOffsets[nNodes];
+        this.sources = new int[nEdges];
+        this.targets = new int[nEdges];
+        this.kinds = new byte[nEdges];
+        this.caseValues = hasSwitchCase ? new int[nEdges] : null;
+        this.exceptions = hasExceptional ? newExceptionsArray(nEdges) : null;
+        this.inSlots = new int[nEdges];
+        this.edges = newEdgeArray(nEdges);
+        int[] inNext = inOffsets.clone();
+        for (int i = 0; i < nNodes; ++i) {
+            Stmt node = nodes[i];
+            if (node == null) {
+                continue;
+            }
+            int slot = outOffsets[i];
+            for (Edge<Stmt> edge : cfg.getOutEdgesOf(node)) {
+                int target = edge.getTarget().getIndex();
+                sources[slot] = i;
+                targets[slot] = target;
+                kinds[slot] = (byte) edge.getKind().ordinal();
+                if (edge.isSwitchCase()) {
+                    caseValues[slot] = edge.getCaseValue();
+                }
+                if (edge.isExceptional()) {
+                    exceptions[slot] = edge.getExceptions();
+                }
+                inSlots[inNext[target]++] = slot;
+                ++slot;
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Set<ClassType>[] newExceptionsArray(int length) {
+        return (Set<ClassType>[]) new Set<?>[length];
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Edge<Stmt>[] newEdgeArray(int length) {
+        return (Edge<Stmt>[]) new Edge<?>[length];
+    }
+
+    @Override
+    public IR getIR() {
+        return ir;
+    }
+
+    @Override
+    public JMethod getMethod() {
+        return ir.getMethod();
+    }
+
+    @Override
+    public Stmt getEntry() {
+        return entry;
+    }
+
+    @Override
+    public Stmt getExit() {
+        return exit;
+    }
+
+    @Override
+    public boolean isEntry(Stmt node) {
+        return node == entry;
+    }
+
+    @Override
+    public boolean isExit(Stmt node) {
+        return node == exit;
+    }
+
+    @Override
+    public boolean hasNode(Stmt node) {
+        int i = node.getIndex();
+        return 0 <= i && i < nodes.length && nodes[i] == node;
+    }
+
+    @Override
+    public boolean hasEdge(Stmt source, Stmt target) {
+        int i = source.getIndex();
+        int t = target.getIndex();
+        for (int slot = outOffsets[i]; slot < outOffsets[i + 1]; ++slot) {
+            if (targets[slot] == t) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public Set<Stmt> getPredsOf(Stmt node) {
+        int i = node.getIndex();
+        return new SlotSet<>(inOffsets[i], inOffsets[i + 1],
+                k -> nodes[sources[inSlots[k]]]);
+    }
+
+    @Override
+    public Set<Stmt> getSuccsOf(Stmt node) {
+        int i = node.getIndex();
+        return new SlotSet<>(outOffsets[i], outOffsets[i + 1],
+                slot -> nodes[targets[slot]]);
+    }
+
+    @Override
+    public Set<Edge<Stmt>> getInEdgesOf(Stmt node) {
+        int i = node.getIndex();
+        return new SlotSet<>(inOffsets[i], inOffsets[i + 1],
+                k -> getEdge(inSlots[k]));
+    }
+
+    @Override
+    public Set<Edge<Stmt>> getOutEdgesOf(Stmt node) {
+        int i = node.getIndex();
+        return new SlotSet<>(outOffsets[i], outOffsets[i + 1], this::getEdge);
+    }
+
+    @Override
+    public int getInDegreeOf(Stmt node) {
+        int i = node.getIndex();
+        return inOffsets[i + 1] - inOffsets[i];
+    }
+
+    @Override
+    public int getOutDegreeOf(Stmt node) {
+        int i = node.getIndex();
+        return outOffsets[i + 1] - outOffsets[i];
+    }
+
+    /**
+     * @return the edge at given slot.
+     */
+    private Edge<Stmt> getEdge(int slot) {
+        Edge<Stmt> edge = edges[slot];
+        if (edge == null) {
+            edge = newEdge(slot);
+            edges[slot] = edge;
+        }
+        return edge;
+    }
+
+    private Edge<Stmt> newEdge(int slot) {
+        Edge.Kind kind = KINDS[kinds[slot]];
+        Stmt source = nodes[sources[slot]];
+        Stmt target = nodes[targets[slot]];
+        return switch (kind) {
+            case SWITCH_CASE ->
+                    new SwitchCaseEdge<>(source, target, caseValues[slot]);
+            case CAUGHT_EXCEPTION, UNCAUGHT_EXCEPTION ->
+                    new ExceptionalEdge<>(kind, source, target, exceptions[slot]);
+            default -> new Edge<>(kind, source, target);
+        };
+    }
+
+    @Override
+    public Set<Stmt> getNodes() {
+        return new SlotSet<>(0, nodes.length, i -> nodes[i]);
+    }
+
+    @Override
+    public int getNumberOfNodes() {
+        return nodes.length;
+    }
+
+    /**
+     * Read-only set view of the elements mapped from a range of ints.
+     */
+    private static class SlotSet<E> extends AbstractSet<E> {
+
+        private final int from;
+
+        private final int to;
+
+        private final IntFunction<E> mapper;
+
+        private SlotSet(int from, int to, IntFunction<E> mapper) {
+            this.from = from;
+            this.to = to;
+            this.mapper = mapper;
+        }
+
+        @Override
+        public Iterator<E> iterator() {
+            return new Iterator<>() {
+
+                private int next = from;
+
+                @Override
+                public boolean hasNext() {
+                    return next < to;
+                }
+
+                @Override
+                public E next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    return mapper.apply(next++);
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return to - from;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis;
+
+import org.junit.Assert;
+import org.junit.Test;
+import pascal.taie.analysis.dataflow.analysis.DeadCodeDetection;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+public class AnalysisManagerTest {
+
+    @Test
+    public void testResultOrder() {
+        List<Integer> elements = IntStream.range(0, 200).boxed().toList();
+        // the elements take different time, thus they are finished
+        // out of order when analyzed in parallel
+        Function<Integer, Object> analyze = i -> {
+            try {
+                Thread.sleep(i % 7);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return i * 2;
+        };
+        List<Object> expected = AnalysisManager.analyzeInParallel(
+                elements, analyze, 1);
+        for (int parallelism : new int[]{0, 2, 4}) {
+            Assert.assertEquals(expected, AnalysisManager.analyzeInParallel(
+                    elements, analyze, parallelism));
+        }
+    }
+
+    @Test
+    public void testParallelMethodAnalyses() {
+        Tests.test("Loops", "src/test/resources/dataflow/deadcode/",
+                DeadCodeDetection.ID, "parallelism:4",
+                "-a", "livevar=strongly:false;parallelism:4",
+                "-a", "constprop=edge-refine:false;parallelism:4");
+    }
+}
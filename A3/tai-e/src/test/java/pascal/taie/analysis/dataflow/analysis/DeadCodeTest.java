@@ -58,4 +58,42 @@ public class DeadCodeTest {
     public void testLoops() {
         testDCD("Loops");
     }
+
+    @Test
+    public void testCompactResults() {
+        Tests.test("Loops", "src/test/resources/dataflow/deadcode/",
+                DeadCodeDetection.ID,
+                "-a", "livevar=strongly:false;result:compact",
+                "-a", "constprop=edge-refine:false;result:array");
+    }
+
+    @Test
+    public void testFused() {
+        Tests.test("Loops", "src/test/resources/dataflow/deadcode/",
+                DeadCodeDetection.ID,
+                "fused:true;edge-refine:false;strongly:false");
+    }
+
+    @Test
+    public void testFusedQuery() {
+        Tests.test("UnreachableIfBranch", "src/test/resources/dataflow/deadcode/",
+                DeadCodeDetection.ID,
+                "fused:true;query:true;edge-refine:false;strongly:false");
+    }
+
+    @Test
+    public void testSparseConstantPropagation() {
+        Tests.test("UnreachableIfBranch", "src/test/resources/dataflow/deadcode/",
+                DeadCodeDetection.ID,
+                "-a", "livevar=strongly:false",
+                "-a", "constprop=edge-refine:false;sparse:true");
+    }
+
+    @Test
+    public void testCompactCFG() {
+        Tests.test("UnreachableSwitchBranch", "src/test/resources/dataflow/deadcode/",
+                DeadCodeDetection.ID, "-a", "cfg=compact:true",
+                "-a", "livevar=strongly:false",
+                "-a", "constprop=edge-refine:false");
+    }
 }
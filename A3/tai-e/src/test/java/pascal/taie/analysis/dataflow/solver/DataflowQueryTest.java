@@ -0,0 +1,148 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.solver;
+
+import org.junit.Assert;
+import org.junit.Test;
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
+import pascal.taie.analysis.dataflow.analysis.LiveVariableAnalysis;
+import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.fact.SetFact;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.analysis.graph.cfg.TestCFGs;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+public class DataflowQueryTest {
+
+    private static final String CLASS_PATH = "src/test/resources/dataflow/deadcode/";
+
+    /**
+     * Checks that the facts answered by {@link DataflowQuery} are the
+     * same as the ones computed by {@link Solver} for the whole CFGs.
+     */
+    void test(String inputClass) {
+        Main.main(new String[]{ "-pp", "-cp", CLASS_PATH, "-m", inputClass,
+                "-a", ConstantPropagation.ID + "=edge-refine:false",
+                "-a", LiveVariableAnalysis.ID + "=strongly:false" });
+        ConstantPropagation constprop = new ConstantPropagation(new AnalysisConfig(
+                ConstantPropagation.ID, "edge-refine", false));
+        LiveVariableAnalysis livevar = new LiveVariableAnalysis(new AnalysisConfig(
+                LiveVariableAnalysis.ID, "strongly", false));
+        World.get().getClassHierarchy()
+                .applicationClasses()
+                .flatMap(c -> c.getDeclaredMethods().stream())
+                .filter(m -> !m.isAbstract() && !m.isNative())
+                .map(JMethod::getIR)
+                .forEach(ir -> {
+                    compare(constprop, ir, ConstantPropagation.ID);
+                    compare(livevar, ir, LiveVariableAnalysis.ID);
+                });
+    }
+
+    private static <Fact> void compare(DataflowAnalysis<Stmt, Fact> analysis,
+                                       IR ir, String id) {
+        CFG<Stmt> cfg = ir.getResult(CFGBuilder.ID);
+        DataflowResult<Stmt, Fact> expected = ir.getResult(id);
+        DataflowQuery<Stmt, Fact> query = new DataflowQuery<>(analysis, cfg);
+        // query the nodes in reverse order, so that the later queries are
+        // answered partly by the slices solved for the earlier ones
+        List<Stmt> nodes = new ArrayList<>(cfg.getNodes());
+        nodes.sort(Comparator.comparing(Stmt::getIndex).reversed());
+        for (Stmt node : nodes) {
+            String message = id + " of " + node + " in " + ir.getMethod();
+            // the facts before the boundary node are not
+            // defined by the analysis, thus they are not compared
+            if (!analysis.isForward() || !cfg.isEntry(node)) {
+                Assert.assertEquals(message, expected.getInFact(node),
+                        query.getInFact(node));
+            }
+            if (analysis.isForward() || !cfg.isExit(node)) {
+                Assert.assertEquals(message, expected.getOutFact(node),
+                        query.getOutFact(node));
+            }
+        }
+    }
+
+    /**
+     * Checks the facts answered by {@link DataflowQuery} on a hand-built
+     * CFG against the expected facts of {@link NodeSetAnalysis}.
+     */
+    @Test
+    public void testNodeSets() {
+        for (CFG<Stmt> cfg : List.of(TestCFGs.loop(), TestCFGs.compactLoop())) {
+            testNodeSets(cfg, true, NodeSetAnalysis.FORWARD_IN,
+                    NodeSetAnalysis.FORWARD_OUT);
+            testNodeSets(cfg, false, NodeSetAnalysis.BACKWARD_IN,
+                    NodeSetAnalysis.BACKWARD_OUT);
+        }
+    }
+
+    private static void testNodeSets(CFG<Stmt> cfg, boolean forward,
+                                     int[][] in, int[][] out) {
+        DataflowQuery<Stmt, SetFact<Stmt>> query =
+                new DataflowQuery<>(new NodeSetAnalysis(forward), cfg);
+        // the first query solves the slice of node 2, and
+        // the later ones solve the rest of the CFG
+        List<Stmt> nodes = new ArrayList<>(cfg.getNodes());
+        nodes.sort(Comparator.comparing(Stmt::getIndex));
+        Collections.rotate(nodes, -2);
+        for (Stmt node : nodes) {
+            int i = node.getIndex();
+            if (in[i] != null) {
+                Assert.assertEquals("in fact of " + i,
+                        NodeSetAnalysis.fact(cfg, in[i]), query.getInFact(node));
+            }
+            if (out[i] != null) {
+                Assert.assertEquals("out fact of " + i,
+                        NodeSetAnalysis.fact(cfg, out[i]), query.getOutFact(node));
+            }
+        }
+    }
+
+    @Test
+    public void testUnreachableIfBranch() {
+        test("UnreachableIfBranch");
+    }
+
+    @Test
+    public void testLoops() {
+        test("Loops");
+    }
+
+    @Test
+    public void testUnreachableSwitchBranch() {
+        test("UnreachableSwitchBranch");
+    }
+}
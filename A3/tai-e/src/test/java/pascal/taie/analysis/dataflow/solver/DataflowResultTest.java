@@ -0,0 +1,99 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.solver;
+
+import org.junit.Assert;
+import org.junit.Test;
+import pascal.taie.analysis.dataflow.fact.ArrayDataflowResult;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.fact.SetFact;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.TestCFGs;
+import pascal.taie.ir.stmt.Stmt;
+
+import static pascal.taie.analysis.dataflow.solver.NodeSetAnalysis.BACKWARD_IN;
+import static pascal.taie.analysis.dataflow.solver.NodeSetAnalysis.BACKWARD_OUT;
+import static pascal.taie.analysis.dataflow.solver.NodeSetAnalysis.FORWARD_IN;
+import static pascal.taie.analysis.dataflow.solver.NodeSetAnalysis.FORWARD_OUT;
+import static pascal.taie.analysis.dataflow.solver.NodeSetAnalysis.fact;
+
+public class DataflowResultTest {
+
+    @Test
+    public void testArrayResult() {
+        CFG<Stmt> cfg = TestCFGs.loop();
+        DataflowResult<Stmt, SetFact<Stmt>> result =
+                new ArrayDataflowResult<>(Stmt::getIndex, cfg.getNumberOfNodes());
+        for (Stmt node : cfg) {
+            Assert.assertNull(result.getInFact(node));
+            Assert.assertNull(result.getOutFact(node));
+            result.setInFact(node, fact(cfg, node.getIndex()));
+        }
+        for (Stmt node : cfg) {
+            result.setOutFact(node, fact(cfg));
+        }
+        for (Stmt node : cfg) {
+            Assert.assertEquals(fact(cfg, node.getIndex()), result.getInFact(node));
+            Assert.assertEquals(fact(cfg), result.getOutFact(node));
+        }
+    }
+
+    @Test
+    public void testCompactResultForward() {
+        CFG<Stmt> cfg = TestCFGs.compactLoop();
+        CompactDataflowResult<Stmt, SetFact<Stmt>> result = new CompactDataflowResult<>(
+                new NodeSetAnalysis(true), cfg, Stmt::getIndex, cfg.getNumberOfNodes());
+        for (Stmt node : cfg) {
+            result.setOutFact(node, fact(cfg, FORWARD_OUT[node.getIndex()]));
+            // in facts are derived, thus setting them has no effect
+            result.setInFact(node, fact(cfg, node.getIndex()));
+        }
+        for (Stmt node : cfg) {
+            int i = node.getIndex();
+            Assert.assertEquals(fact(cfg, FORWARD_OUT[i]), result.getOutFact(node));
+            if (FORWARD_IN[i] != null) {
+                Assert.assertEquals("in fact of " + i,
+                        fact(cfg, FORWARD_IN[i]), result.getInFact(node));
+            }
+        }
+    }
+
+    @Test
+    public void testCompactResultBackward() {
+        CFG<Stmt> cfg = TestCFGs.compactLoop();
+        CompactDataflowResult<Stmt, SetFact<Stmt>> result = new CompactDataflowResult<>(
+                new NodeSetAnalysis(false), cfg, Stmt::getIndex, cfg.getNumberOfNodes());
+        for (Stmt node : cfg) {
+            result.setInFact(node, fact(cfg, BACKWARD_IN[node.getIndex()]));
+            result.setOutFact(node, fact(cfg, node.getIndex()));
+        }
+        for (Stmt node : cfg) {
+            int i = node.getIndex();
+            Assert.assertEquals(fact(cfg, BACKWARD_IN[i]), result.getInFact(node));
+            if (BACKWARD_OUT[i] != null) {
+                Assert.assertEquals("out fact of " + i,
+                        fact(cfg, BACKWARD_OUT[i]), result.getOutFact(node));
+            }
+        }
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.solver;
+
+import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
+import pascal.taie.analysis.dataflow.fact.SetFact;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.Edge;
+import pascal.taie.analysis.graph.cfg.TestCFGs;
+import pascal.taie.ir.stmt.Stmt;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * A may analysis for testing the solvers without loading a program.
+ * The fact of a node is the set of nodes which pass through it, i.e.,
+ * each node adds itself to the fact, and the IF_FALSE edges remove
+ * their sources from the facts flowing along them.
+ */
+class NodeSetAnalysis implements DataflowAnalysis<Stmt, SetFact<Stmt>> {
+
+    private final boolean forward;
+
+    NodeSetAnalysis(boolean forward) {
+        this.forward = forward;
+    }
+
+    @Override
+    public boolean isForward() {
+        return forward;
+    }
+
+    @Override
+    public SetFact<Stmt> newBoundaryFact(CFG<Stmt> cfg) {
+        return new SetFact<>();
+    }
+
+    @Override
+    public SetFact<Stmt> newInitialFact() {
+        return new SetFact<>();
+    }
+
+    @Override
+    public void meetInto(SetFact<Stmt> fact, SetFact<Stmt> target) {
+        target.union(fact);
+    }
+
+    @Override
+    public boolean transferNode(Stmt node, SetFact<Stmt> in, SetFact<Stmt> out) {
+        boolean changed = out.union(in);
+        return out.add(node) || changed;
+    }
+
+    @Override
+    public boolean needTransferEdge(Edge<Stmt> edge) {
+        return edge.getKind() == Edge.Kind.IF_FALSE;
+    }
+
+    @Override
+    public SetFact<Stmt> transferEdge(Edge<Stmt> edge, SetFact<Stmt> nodeFact) {
+        SetFact<Stmt> fact = nodeFact.copy();
+        fact.remove(edge.getSource());
+        return fact;
+    }
+
+    /**
+     * @return the fact which consists of the nodes of given indexes
+     * in given CFG.
+     */
+    static SetFact<Stmt> fact(CFG<Stmt> cfg, int... indexes) {
+        Map<Integer, Stmt> nodes = cfg.getNodes()
+                .stream()
+                .collect(Collectors.toMap(Stmt::getIndex, Function.identity()));
+        return new SetFact<>(Arrays.stream(indexes)
+                .mapToObj(nodes::get)
+                .toList());
+    }
+
+    /**
+     * Expected facts of the forward analysis on {@link TestCFGs#loop()},
+     * indexed by the nodes. The fact flowing into the entry is
+     * not defined by the analysis.
+     */
+    static final int[][] FORWARD_IN = {
+            {0, 1, 2, 3}, {0, 1, 2, 3}, {1, 2, 3}, {0, 1, 2, 3},
+            {0, 1, 2, 3}, null, {0, 1, 2, 3, 4},
+    };
+
+    static final int[][] FORWARD_OUT = {
+            {0, 1, 2, 3}, {0, 1, 2, 3}, {1, 2, 3}, {0, 1, 2, 3},
+            {0, 1, 2, 3, 4}, {}, {0, 1, 2, 3, 4, 6},
+    };
+
+    /**
+     * Expected facts of the backward analysis on {@link TestCFGs#loop()}.
+     * The fact flowing out of the exit is not defined by the analysis.
+     */
+    static final int[][] BACKWARD_IN = {
+            {0, 1, 2, 3, 4}, {0, 1, 2, 3, 4}, {0, 1, 2, 3, 4}, {0, 1, 2, 3, 4},
+            {4}, {0, 1, 2, 3, 4, 5}, {},
+    };
+
+    static final int[][] BACKWARD_OUT = {
+            {0, 1, 2, 3, 4}, {0, 1, 2, 3, 4}, {0, 1, 2, 3, 4}, {0, 1, 2, 3, 4},
+            {}, {0, 1, 2, 3, 4}, null,
+    };
+}
@@ -0,0 +1,87 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.cfg;
+
+import org.junit.Assert;
+import org.junit.Test;
+import pascal.taie.ir.stmt.Stmt;
+
+import java.util.HashSet;
+import java.util.Set;
+
+public class CompactCFGTest {
+
+    @Test
+    public void testSameGraph() {
+        CFG<Stmt> cfg = TestCFGs.loop();
+        CFG<Stmt> compact = new CompactCFG(cfg);
+        Assert.assertSame(cfg.getIR(), compact.getIR());
+        Assert.assertSame(cfg.getEntry(), compact.getEntry());
+        Assert.assertSame(cfg.getExit(), compact.getExit());
+        assertSameSet(cfg.getNodes(), compact.getNodes());
+        Assert.assertEquals(7, compact.getNumberOfNodes());
+        for (Stmt node : cfg) {
+            Assert.assertTrue(compact.hasNode(node));
+            assertSameSet(cfg.getSuccsOf(node), compact.getSuccsOf(node));
+            assertSameSet(cfg.getPredsOf(node), compact.getPredsOf(node));
+            assertSameSet(cfg.getOutEdgesOf(node), compact.getOutEdgesOf(node));
+            assertSameSet(cfg.getInEdgesOf(node), compact.getInEdgesOf(node));
+            Assert.assertEquals(cfg.getOutDegreeOf(node), compact.getOutDegreeOf(node));
+            Assert.assertEquals(cfg.getInDegreeOf(node), compact.getInDegreeOf(node));
+            for (Stmt other : cfg) {
+                Assert.assertEquals(cfg.hasEdge(node, other),
+                        compact.hasEdge(node, other));
+            }
+        }
+    }
+
+    /**
+     * Compares the elements only, as the sets returned by the CFGs
+     * may be views which do not implement {@link Set#equals(Object)}.
+     */
+    private static <E> void assertSameSet(Set<E> expected, Set<E> actual) {
+        Assert.assertEquals(new HashSet<>(expected), new HashSet<>(actual));
+    }
+
+    @Test
+    public void testEdges() {
+        CFG<Stmt> compact = TestCFGs.compactLoop();
+        Stmt s2 = compact.getIR().getStmt(2);
+        Stmt s3 = compact.getIR().getStmt(3);
+        Stmt s4 = compact.getIR().getStmt(4);
+        Edge<Stmt> switchCase = compact.getOutEdgesOf(s3)
+                .stream()
+                .filter(Edge::isSwitchCase)
+                .findFirst()
+                .orElseThrow();
+        Assert.assertEquals(7, switchCase.getCaseValue());
+        Assert.assertTrue(compact.getOutEdgesOf(s2)
+                .stream()
+                .anyMatch(e -> e.isExceptional() && compact.isExit(e.getTarget())));
+        // the edges are created once, and then shared by the queries
+        // of both the out edges of the source and the in edges of the target
+        for (Edge<Stmt> edge : compact.getInEdgesOf(s4)) {
+            Assert.assertSame(switchCase, edge);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.cfg;
+
+import pascal.taie.ir.DefaultIR;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.stmt.Nop;
+import pascal.taie.ir.stmt.Stmt;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Hand-built CFGs for testing the CFG representations and the data-flow
+ * solvers without loading a program.
+ */
+public final class TestCFGs {
+
+    private TestCFGs() {
+    }
+
+    /**
+     * Builds a CFG of five {@link Nop}s (0..4), with entry 5 and exit 6:
+     * <pre>
+     * 5 -ENTRY-> 0
+     * 0 -IF_TRUE-> 1, 0 -IF_FALSE-> 2
+     * 1 -GOTO-> 3, 2 -FALL_THROUGH-> 3, 2 -UNCAUGHT_EXCEPTION-> 6
+     * 3 -SWITCH_CASE(7)-> 4, 3 -SWITCH_DEFAULT-> 0
+     * 4 -RETURN-> 6
+     * </pre>
+     * It has a loop, a join at the exit, and switch-case and
+     * exceptional edges.
+     */
+    public static CFG<Stmt> loop() {
+        List<Stmt> stmts = new ArrayList<>();
+        for (int i = 0; i < 5; ++i) {
+            Nop nop = new Nop();
+            nop.setIndex(i);
+            stmts.add(nop);
+        }
+        IR ir = new DefaultIR(null, null, List.of(), Set.of(), List.of(),
+                stmts, List.of());
+        StmtCFG cfg = new StmtCFG(ir);
+        Nop entry = new Nop();
+        entry.setIndex(5);
+        cfg.setEntry(entry);
+        Nop exit = new Nop();
+        exit.setIndex(6);
+        cfg.setExit(exit);
+        stmts.forEach(cfg::addNode);
+        cfg.addEdge(new Edge<>(Edge.Kind.ENTRY, entry, stmts.get(0)));
+        cfg.addEdge(new Edge<>(Edge.Kind.IF_TRUE, stmts.get(0), stmts.get(1)));
+        cfg.addEdge(new Edge<>(Edge.Kind.IF_FALSE, stmts.get(0), stmts.get(2)));
+        cfg.addEdge(new Edge<>(Edge.Kind.GOTO, stmts.get(1), stmts.get(3)));
+        cfg.addEdge(new Edge<>(Edge.Kind.FALL_THROUGH, stmts.get(2), stmts.get(3)));
+        cfg.addEdge(new ExceptionalEdge<>(Edge.Kind.UNCAUGHT_EXCEPTION,
+                stmts.get(2), exit, Set.of()));
+        cfg.addEdge(new SwitchCaseEdge<>(stmts.get(3), stmts.get(4), 7));
+        cfg.addEdge(new Edge<>(Edge.Kind.SWITCH_DEFAULT, stmts.get(3), stmts.get(0)));
+        cfg.addEdge(new Edge<>(Edge.Kind.RETURN, stmts.get(4), exit));
+        return cfg;
+    }
+
+    /**
+     * @return the compact form of {@link #loop()}.
+     */
+    public static CFG<Stmt> compactLoop() {
+        return new CompactCFG(loop());
+    }
+}
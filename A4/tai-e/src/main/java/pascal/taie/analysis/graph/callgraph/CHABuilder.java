@@ -22,6 +22,8 @@
 
 package pascal.taie.analysis.graph.callgraph;
 
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import pascal.taie.World;
 import pascal.taie.ir.proginfo.MethodRef;
 import pascal.taie.ir.stmt.Invoke;
@@ -29,10 +31,16 @@ import pascal.taie.language.classes.ClassHierarchy;
 import pascal.taie.language.classes.JClass;
 import pascal.taie.language.classes.JMethod;
 import pascal.taie.language.classes.Subsignature;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Pair;
 
 import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
 import java.util.Queue;
 import java.util.Set;
 
@@ -41,12 +49,98 @@ import java.util.Set;
  */
 class CHABuilder implements CGBuilder<Invoke, JMethod> {
 
+    private static final Logger logger = LogManager.getLogger(CHABuilder.class);
+
+    private final boolean parallel;
+
+    /**
+     * Call graph of a prior run, from which this builder is resumed,
+     * or null if the call graph is built from scratch.
+     */
+    private final CallGraphSnapshot base;
+
+    /**
+     * Maximum number of targets of a call site, or a negative number
+     * for no limit. The call sites which exceed the limit are deferred,
+     * i.e., no call edges are added for them.
+     */
+    private final int fanOutLimit;
+
+    /**
+     * Call sites deferred due to {@link #fanOutLimit},
+     * and their numbers of targets.
+     */
+    private final Map<Invoke, Integer> deferred = Maps.newConcurrentMap();
+
     private ClassHierarchy hierarchy;
 
+    /**
+     * Targets of virtual and interface calls, memoized per
+     * (declaring class, subsignature) of the method references.
+     */
+    private final Map<Pair<JClass, Subsignature>, Set<JMethod>> resolved =
+            Maps.newConcurrentMap();
+
+    CHABuilder() {
+        this(false);
+    }
+
+    /**
+     * @param parallel whether to resolve call sites in parallel
+     */
+    CHABuilder(boolean parallel) {
+        this(parallel, null);
+    }
+
+    /**
+     * @param parallel whether to resolve call sites in parallel
+     * @param base     call graph of a prior run on a subset of the classes,
+     *                 from which the call graph is built incrementally
+     */
+    CHABuilder(boolean parallel, CallGraphSnapshot base) {
+        this(parallel, base, -1);
+    }
+
+    /**
+     * @param parallel    whether to resolve call sites in parallel
+     * @param base        call graph of a prior run on a subset of the classes,
+     *                    from which the call graph is built incrementally
+     * @param fanOutLimit maximum number of targets of a call site,
+     *                    or a negative number for no limit
+     */
+    CHABuilder(boolean parallel, CallGraphSnapshot base, int fanOutLimit) {
+        this.parallel = parallel;
+        this.base = base;
+        this.fanOutLimit = fanOutLimit;
+    }
+
     @Override
     public CallGraph<Invoke, JMethod> build() {
         hierarchy = World.get().getClassHierarchy();
-        return buildCallGraph(World.get().getMainMethod());
+        JMethod entry = World.get().getMainMethod();
+        CallGraph<Invoke, JMethod> callGraph;
+        if (base != null) {
+            callGraph = buildCallGraphIncrementally(entry);
+        } else {
+            callGraph = parallel ?
+                    buildCallGraphInParallel(entry) : buildCallGraph(entry);
+        }
+        reportDeferredCallSites();
+        return callGraph;
+    }
+
+    private void reportDeferredCallSites() {
+        if (deferred.isEmpty()) {
+            return;
+        }
+        logger.info("{} call sites are deferred as they have more than {} targets:",
+                deferred.size(), fanOutLimit);
+        deferred.entrySet()
+                .stream()
+                .sorted(Map.Entry.<Invoke, Integer>comparingByValue().reversed()
+                        .thenComparing(e -> CallGraphs.toString(e.getKey())))
+                .forEach(e -> logger.info("{} ({} targets)",
+                        CallGraphs.toString(e.getKey()), e.getValue()));
     }
 
     private CallGraph<Invoke, JMethod> buildCallGraph(JMethod entry) {
@@ -71,10 +165,153 @@ class CHABuilder implements CGBuilder<Invoke, JMethod> {
         return callGraph;
     }
 
+    /**
+     * Builds the call graph level by level, i.e., the call sites in the
+     * methods which become reachable in the same round are resolved in
+     * parallel, and then their edges are added to the call graph, and the
+     * new reachable methods are marked, sequentially in the order of the
+     * call sites. Thus, the call graph is the same as the one built by
+     * {@link #buildCallGraph(JMethod)}, and it is modified by one thread
+     * only. Each method is put to the next round at most once.
+     */
+    private CallGraph<Invoke, JMethod> buildCallGraphInParallel(JMethod entry) {
+        DefaultCallGraph callGraph = new DefaultCallGraph();
+        callGraph.addEntryMethod(entry);
+        Set<JMethod> marked = new HashSet<>();
+        marked.add(entry);
+        List<JMethod> frontier = List.of(entry);
+        while (!frontier.isEmpty()) {
+            // building IR is not thread-safe, thus the call sites
+            // are collected sequentially
+            List<Invoke> callSites = new ArrayList<>();
+            for (JMethod m : frontier) {
+                callGraph.addReachableMethod(m);
+                callSites.addAll(callGraph.getCallSitesIn(m));
+            }
+            List<Set<JMethod>> targets = callSites.parallelStream()
+                    .map(this::resolve)
+                    .toList();
+            List<JMethod> next = new ArrayList<>();
+            for (int i = 0; i < callSites.size(); ++i) {
+                Invoke callSite = callSites.get(i);
+                CallKind kind = CallGraphs.getCallKind(callSite);
+                for (JMethod callee : targets.get(i)) {
+                    callGraph.addEdge(new Edge<>(kind, callSite, callee));
+                    if (marked.add(callee)) {
+                        next.add(callee);
+                    }
+                }
+            }
+            frontier = next;
+        }
+        return callGraph;
+    }
+
+    /**
+     * Builds the call graph on top of {@link #base}, which was built by
+     * CHA for the classes of a prior run. The analysis proceeds from the
+     * entry methods of the base and the new entry method, as
+     * {@link #buildCallGraph(JMethod)} does, except that the targets of
+     * the call sites in the methods of the base are taken from the base,
+     * and the virtual and interface call sites are dispatched on the newly
+     * added classes only if their declaring classes are supertypes of some
+     * new classes. The call sites which have no targets in the base, e.g.,
+     * the ones deferred by the prior run, are resolved from scratch.
+     * <p>
+     * The classes of the prior run are assumed to be unchanged.
+     */
+    private CallGraph<Invoke, JMethod> buildCallGraphIncrementally(JMethod entry) {
+        DefaultCallGraph callGraph = new DefaultCallGraph();
+        base.entryMethods().forEach(callGraph::addEntryMethod);
+        callGraph.addEntryMethod(entry);
+        Set<String> baseClasses = base.getClassNames();
+        List<JClass> newClasses = hierarchy.allClasses()
+                .filter(c -> !baseClasses.contains(c.getName()))
+                .toList();
+        Set<JClass> supertypes = new HashSet<>();
+        newClasses.forEach(c -> collectSupertypes(c, supertypes));
+        Queue<JMethod> workList = new ArrayDeque<>();
+        callGraph.entryMethods().forEach(workList::add);
+        while (!workList.isEmpty()) {
+            JMethod m = workList.poll();
+            if (callGraph.addReachableMethod(m)) {
+                boolean inBase = base.contains(m);
+                for (Invoke callSite : callGraph.getCallSitesIn(m)) {
+                    CallKind kind = CallGraphs.getCallKind(callSite);
+                    Set<JMethod> targets = inBase ?
+                            resolveIncrementally(callSite, newClasses, supertypes) :
+                            resolve(callSite);
+                    for (JMethod callee : targets) {
+                        callGraph.addEdge(new Edge<>(kind, callSite, callee));
+                        workList.add(callee);
+                    }
+                }
+            }
+        }
+        return callGraph;
+    }
+
+    /**
+     * Resolves call targets of a call site in a method of {@link #base},
+     * i.e., its targets in the base, plus the targets dispatched on the
+     * new classes. Like {@link #resolve(Invoke)}, the call site is deferred
+     * if it has more targets than {@link #fanOutLimit}.
+     */
+    private Set<JMethod> resolveIncrementally(
+            Invoke callSite, List<JClass> newClasses, Set<JClass> supertypes) {
+        Set<JMethod> targets = new HashSet<>(base.getCalleesOf(callSite));
+        if (targets.isEmpty()) {
+            return resolve(callSite);
+        }
+        CallKind kind = CallGraphs.getCallKind(callSite);
+        MethodRef ref = callSite.getMethodRef();
+        if ((kind == CallKind.VIRTUAL || kind == CallKind.INTERFACE)
+                && supertypes.contains(ref.getDeclaringClass())) {
+            Collection<JClass> subtypes =
+                    hierarchy.getAllSubtypesOf(ref.getDeclaringClass());
+            for (JClass c : newClasses) {
+                if (subtypes.contains(c)) {
+                    targets.add(dispatch(c, ref.getSubsignature()));
+                }
+            }
+            targets.remove(null);
+        }
+        return limit(callSite, targets);
+    }
+
+    /**
+     * Adds given class and all its superclasses and superinterfaces
+     * to {@code result}.
+     */
+    private static void collectSupertypes(JClass jclass, Set<JClass> result) {
+        if (jclass != null && result.add(jclass)) {
+            collectSupertypes(jclass.getSuperClass(), result);
+            jclass.getInterfaces().forEach(i -> collectSupertypes(i, result));
+        }
+    }
+
     /**
      * Resolves call targets (callees) of a call site via CHA.
+     * If the call site has more targets than {@link #fanOutLimit},
+     * it is deferred and no targets are returned.
      */
     private Set<JMethod> resolve(Invoke callSite) {
+        return limit(callSite, resolveTargets(callSite));
+    }
+
+    /**
+     * @return given targets of a call site, or an empty set if they are
+     * more than {@link #fanOutLimit}, in which case the call site is deferred.
+     */
+    private Set<JMethod> limit(Invoke callSite, Set<JMethod> targets) {
+        if (fanOutLimit >= 0 && targets.size() > fanOutLimit) {
+            deferred.put(callSite, targets.size());
+            return Set.of();
+        }
+        return targets;
+    }
+
+    private Set<JMethod> resolveTargets(Invoke callSite) {
         // TODO - finish me
         Set<JMethod> T = new HashSet<>();
         MethodRef method = callSite.getMethodRef();
@@ -85,20 +322,24 @@ class CHABuilder implements CGBuilder<Invoke, JMethod> {
             // could be null
         } else if (CallGraphs.getCallKind(callSite) == CallKind.VIRTUAL
                 || CallGraphs.getCallKind(callSite) == CallKind.INTERFACE) {
-            // bfs
-            Queue<JClass> q = new LinkedList<>();
-            JClass c = method.getDeclaringClass();
-            q.offer(c);
-            while (!q.isEmpty()) {
-                JClass ci = q.poll();
-                T.add(dispatch(ci, method.getSubsignature()));
-                if (!ci.isInterface()) {
-                    q.addAll(hierarchy.getDirectSubclassesOf(ci));
-                } else {
-                    q.addAll(hierarchy.getDirectSubinterfacesOf(ci));
-                    q.addAll(hierarchy.getDirectImplementorsOf(ci));
-                }
-            }
+            // call sites with the same declaring class and subsignature
+            // have the same targets
+            return resolved.computeIfAbsent(
+                    new Pair<>(method.getDeclaringClass(), method.getSubsignature()),
+                    p -> resolveVirtual(p.first(), p.second()));
+        }
+        T.remove(null);
+        return T;
+    }
+
+    /**
+     * Resolves the targets of a virtual or interface call by dispatching
+     * on all subtypes of the declaring class.
+     */
+    private Set<JMethod> resolveVirtual(JClass declaringClass, Subsignature subsignature) {
+        Set<JMethod> T = new HashSet<>();
+        for (JClass c : hierarchy.getAllSubtypesOf(declaringClass)) {
+            T.add(dispatch(c, subsignature));
         }
         T.remove(null);
         return T;
@@ -57,17 +57,49 @@ public class CallGraphBuilder extends ProgramAnalysis {
     public CallGraph<Invoke, JMethod> analyze() {
         CGBuilder<Invoke, JMethod> builder;
         if (algorithm.equals("cha")) {
-            builder = new CHABuilder();
+            String base = getOptions().getString("base");
+            boolean parallel = getOptions().getBooleanOrDefault("parallel", false);
+            if (parallel && base != null) {
+                throw new ConfigException("Option 'parallel' is not " +
+                        "supported by incremental call graph building");
+            }
+            builder = new CHABuilder(parallel,
+                    base != null ? CallGraphSnapshot.load(base) : null,
+                    getFanOutLimit());
+        } else if (algorithm.equals("rta")) {
+            builder = new RTABuilder();
+        } else if (algorithm.equals("xta")) {
+            builder = new XTABuilder();
+        } else if (algorithm.equals("snapshot")) {
+            builder = () -> CallGraphSnapshot.load(getSnapshotFile());
         } else {
             throw new ConfigException("Unknown call graph building algorithm: " + algorithm);
         }
         ClassHierarchyImpl.setCheckCHA(true);
         CallGraph<Invoke, JMethod> callGraph = builder.build();
         ClassHierarchyImpl.setCheckCHA(false);
+        if (!algorithm.equals("snapshot") &&
+                getOptions().getString("snapshot") != null) {
+            CallGraphSnapshot.save(callGraph, getSnapshotFile());
+        }
         takeAction(callGraph);
         return callGraph;
     }
 
+    private int getFanOutLimit() {
+        Object limit = getOptions().get("fan-out-limit");
+        return limit != null ? getOptions().getInt("fan-out-limit") : -1;
+    }
+
+    private String getSnapshotFile() {
+        String file = getOptions().getString("snapshot");
+        if (file == null) {
+            throw new ConfigException("Option 'snapshot' is required " +
+                    "to load call graph snapshot");
+        }
+        return file;
+    }
+
     private void takeAction(CallGraph<Invoke, JMethod> callGraph) {
         String action = getOptions().getString("action");
         if (action == null) {
@@ -0,0 +1,611 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.callgraph;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.World;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.classes.Subsignature;
+import pascal.taie.util.AnalysisException;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Call graph loaded from a binary snapshot file, which is saved by
+ * {@link #save(CallGraph, String)}.
+ * <p>
+ * The file is memory-mapped and accessed in place, i.e., it is not parsed
+ * when loading. It consists of a header of counts and the following
+ * tables of ints (followed by the bytes of edge kinds and the names of
+ * methods), where methods, call sites and edges are identified by their
+ * indexes in the tables:
+ * <ul>
+ *     <li>method names: offset of the name record of each method,
+ *     which holds the name of the declaring class and the subsignature</li>
+ *     <li>class names: offset of the name of each class in the world
+ *     from which the snapshot was saved</li>
+ *     <li>call sites of methods: the call sites of method {@code i} are
+ *     {@code [offsets[i], offsets[i + 1])}, ordered by statement index</li>
+ *     <li>in-edges of methods: offsets and edge ids, grouped by callees</li>
+ *     <li>entry methods</li>
+ *     <li>call sites: statement index and containing method</li>
+ *     <li>out-edges of call sites: offsets, and source call site and
+ *     callee of each edge</li>
+ *     <li>hash table from method names to method ids</li>
+ * </ul>
+ * The methods and call sites are resolved against the current world
+ * on demand, thus the world must contain the classes of the program
+ * from which the snapshot was saved.
+ */
+public class CallGraphSnapshot implements CallGraph<Invoke, JMethod> {
+
+    private static final Logger logger = LogManager.getLogger(CallGraphSnapshot.class);
+
+    private static final int MAGIC = 0x54434753; // "TCGS"
+
+    private static final int VERSION = 2;
+
+    private static final int HEADER_INTS = 8;
+
+    private static final CallKind[] KINDS = CallKind.values();
+
+    private final ByteBuffer buffer;
+
+    private final int nMethods;
+
+    private final int nEntries;
+
+    private final int nCallSites;
+
+    private final int nEdges;
+
+    private final int hashCapacity;
+
+    private final int nClasses;
+
+    // byte positions of the tables in the buffer
+
+    private final int methodNamesPos;
+
+    private final int classNamesPos;
+
+    private final int methodCallSitesPos;
+
+    private final int inOffsetsPos;
+
+    private final int inEdgesPos;
+
+    private final int entriesPos;
+
+    private final int callSiteStmtsPos;
+
+    private final int callSiteContainersPos;
+
+    private final int edgeOffsetsPos;
+
+    private final int edgeSourcesPos;
+
+    private final int edgeCalleesPos;
+
+    private final int hashTablePos;
+
+    private final int edgeKindsPos;
+
+    /**
+     * Resolved methods, indexed by method ids.
+     */
+    private final JMethod[] methods;
+
+    /**
+     * Resolved call sites, indexed by call site ids.
+     */
+    private final Invoke[] callSites;
+
+    private final Map<JMethod, Integer> methodIds = Maps.newMap();
+
+    private Set<JMethod> nodes;
+
+    private Set<String> classNames;
+
+    private CallGraphSnapshot(ByteBuffer buffer) {
+        this.buffer = buffer;
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new AnalysisException("Invalid call graph snapshot");
+        }
+        nMethods = buffer.getInt(8);
+        nEntries = buffer.getInt(12);
+        nCallSites = buffer.getInt(16);
+        nEdges = buffer.getInt(20);
+        hashCapacity = buffer.getInt(24);
+        nClasses = buffer.getInt(28);
+        methodNamesPos = HEADER_INTS * 4;
+        classNamesPos = methodNamesPos + nMethods * 4;
+        methodCallSitesPos = classNamesPos + nClasses * 4;
+        inOffsetsPos = methodCallSitesPos + (nMethods + 1) * 4;
+        inEdgesPos = inOffsetsPos + (nMethods + 1) * 4;
+        entriesPos = inEdgesPos + nEdges * 4;
+        callSiteStmtsPos = entriesPos + nEntries * 4;
+        callSiteContainersPos = callSiteStmtsPos + nCallSites * 4;
+        edgeOffsetsPos = callSiteContainersPos + nCallSites * 4;
+        edgeSourcesPos = edgeOffsetsPos + (nCallSites + 1) * 4;
+        edgeCalleesPos = edgeSourcesPos + nEdges * 4;
+        hashTablePos = edgeCalleesPos + nEdges * 4;
+        edgeKindsPos = hashTablePos + hashCapacity * 4;
+        methods = new JMethod[nMethods];
+        callSites = new Invoke[nCallSites];
+    }
+
+    /**
+     * Loads the call graph from given snapshot file.
+     */
+    public static CallGraphSnapshot load(String file) {
+        logger.info("Loading call graph snapshot from {} ...", file);
+        try (FileChannel channel = FileChannel.open(Path.of(file),
+                StandardOpenOption.READ)) {
+            // the mapping remains valid after the channel is closed
+            return new CallGraphSnapshot(
+                    channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } catch (IOException e) {
+            throw new AnalysisException("Failed to load call graph snapshot", e);
+        }
+    }
+
+    /**
+     * Saves given call graph to a snapshot file.
+     */
+    public static void save(CallGraph<Invoke, JMethod> callGraph, String file) {
+        logger.info("Saving call graph snapshot to {} ...", file);
+        // number methods, call sites and edges
+        List<JMethod> methods = callGraph.reachableMethods().toList();
+        Map<JMethod, Integer> ids = Maps.newMap(methods.size());
+        methods.forEach(m -> ids.put(m, ids.size()));
+        List<Invoke> callSites = new ArrayList<>();
+        int[] methodCallSites = new int[methods.size() + 1];
+        for (int i = 0; i < methods.size(); ++i) {
+            methodCallSites[i] = callSites.size();
+            callGraph.callSitesIn(methods.get(i))
+                    .sorted(Comparator.comparing(Invoke::getIndex))
+                    .forEach(callSites::add);
+        }
+        methodCallSites[methods.size()] = callSites.size();
+        List<Edge<Invoke, JMethod>> edges = new ArrayList<>();
+        int[] edgeOffsets = new int[callSites.size() + 1];
+        for (int i = 0; i < callSites.size(); ++i) {
+            edgeOffsets[i] = edges.size();
+            callGraph.edgesOutOf(callSites.get(i))
+                    .filter(e -> ids.containsKey(e.getCallee()))
+                    .forEach(edges::add);
+        }
+        edgeOffsets[callSites.size()] = edges.size();
+        List<Integer> entries = callGraph.entryMethods()
+                .filter(ids::containsKey)
+                .map(ids::get)
+                .toList();
+        // names of methods
+        byte[][] classNames = new byte[methods.size()][];
+        byte[][] subsigs = new byte[methods.size()][];
+        for (int i = 0; i < methods.size(); ++i) {
+            classNames[i] = getClassName(methods.get(i));
+            subsigs[i] = getSubsignature(methods.get(i));
+        }
+        List<byte[]> classes = World.get().getClassHierarchy()
+                .allClasses()
+                .map(c -> c.getName().getBytes(StandardCharsets.UTF_8))
+                .toList();
+        int hashCapacity = Integer.highestOneBit(Math.max(methods.size(), 1) * 2) * 2;
+        int intCount = HEADER_INTS + methods.size() + classes.size()
+                + 2 * (methods.size() + 1)
+                + edges.size() + entries.size() + 2 * callSites.size()
+                + (callSites.size() + 1) + 2 * edges.size() + hashCapacity;
+        long size = intCount * 4L + edges.size();
+        int[] nameOffsets = new int[methods.size()];
+        for (int i = 0; i < methods.size(); ++i) {
+            nameOffsets[i] = (int) size;
+            size += 8 + classNames[i].length + subsigs[i].length;
+        }
+        int[] classOffsets = new int[classes.size()];
+        for (int i = 0; i < classes.size(); ++i) {
+            classOffsets[i] = (int) size;
+            size += 4 + classes.get(i).length;
+        }
+        if (size > Integer.MAX_VALUE) {
+            throw new AnalysisException("Call graph is too large for snapshot");
+        }
+        ByteBuffer buffer = ByteBuffer.allocate((int) size);
+        IntBuffer ints = buffer.asIntBuffer();
+        ints.put(MAGIC).put(VERSION).put(methods.size()).put(entries.size())
+                .put(callSites.size()).put(edges.size()).put(hashCapacity)
+                .put(classes.size());
+        ints.put(nameOffsets);
+        ints.put(classOffsets);
+        ints.put(methodCallSites);
+        // in-edges, grouped by callees
+        int[] inOffsets = new int[methods.size() + 1];
+        edges.forEach(e -> ++inOffsets[ids.get(e.getCallee()) + 1]);
+        for (int i = 0; i < methods.size(); ++i) {
+            inOffsets[i + 1] += inOffsets[i];
+        }
+        int[] inEdges = new int[edges.size()];
+        int[] fill = Arrays.copyOf(inOffsets, methods.size());
+        for (int i = 0; i < edges.size(); ++i) {
+            inEdges[fill[ids.get(edges.get(i).getCallee())]++] = i;
+        }
+        ints.put(inOffsets);
+        ints.put(inEdges);
+        entries.forEach(ints::put);
+        callSites.forEach(cs -> ints.put(cs.getIndex()));
+        callSites.forEach(cs -> ints.put(ids.get(cs.getContainer())));
+        ints.put(edgeOffsets);
+        for (int i = 0; i < callSites.size(); ++i) {
+            for (int j = edgeOffsets[i]; j < edgeOffsets[i + 1]; ++j) {
+                ints.put(i);
+            }
+        }
+        edges.forEach(e -> ints.put(ids.get(e.getCallee())));
+        int[] hashTable = new int[hashCapacity];
+        for (int i = 0; i < methods.size(); ++i) {
+            int slot = hash(classNames[i], subsigs[i]) & (hashCapacity - 1);
+            while (hashTable[slot] != 0) {
+                slot = (slot + 1) & (hashCapacity - 1);
+            }
+            hashTable[slot] = i + 1;
+        }
+        ints.put(hashTable);
+        buffer.position(intCount * 4);
+        edges.forEach(e -> buffer.put((byte) e.getKind().ordinal()));
+        for (int i = 0; i < methods.size(); ++i) {
+            buffer.putInt(classNames[i].length).put(classNames[i])
+                    .putInt(subsigs[i].length).put(subsigs[i]);
+        }
+        classes.forEach(name -> buffer.putInt(name.length).put(name));
+        buffer.flip();
+        try (FileChannel channel = FileChannel.open(Path.of(file),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            throw new AnalysisException("Failed to save call graph snapshot", e);
+        }
+    }
+
+    private static byte[] getClassName(JMethod method) {
+        return method.getDeclaringClass().getName()
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] getSubsignature(JMethod method) {
+        return method.getSubsignature().toString()
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int hash(byte[] className, byte[] subsig) {
+        int h = 31 * Arrays.hashCode(className) + Arrays.hashCode(subsig);
+        return h ^ (h >>> 16);
+    }
+
+    private int getInt(int pos, int i) {
+        return buffer.getInt(pos + i * 4);
+    }
+
+    private String getString(int pos) {
+        byte[] bytes = new byte[buffer.getInt(pos)];
+        buffer.get(pos + 4, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return the names of the classes in the world from which
+     * this snapshot was saved.
+     */
+    public Set<String> getClassNames() {
+        if (classNames == null) {
+            classNames = toSet(IntStream.range(0, nClasses)
+                    .mapToObj(i -> getString(getInt(classNamesPos, i))));
+        }
+        return classNames;
+    }
+
+    /**
+     * @return the method of given id, resolved in the current world.
+     */
+    private JMethod getMethod(int id) {
+        JMethod method = methods[id];
+        if (method == null) {
+            int pos = getInt(methodNamesPos, id);
+            String className = getString(pos);
+            String subsig = getString(pos + 4 + buffer.getInt(pos));
+            JClass jclass = World.get().getClassHierarchy().getClass(className);
+            if (jclass != null) {
+                method = jclass.getDeclaredMethod(Subsignature.get(subsig));
+            }
+            if (method == null) {
+                throw new AnalysisException("Method <" + className + ": " +
+                        subsig + "> in call graph snapshot is not found");
+            }
+            methods[id] = method;
+            methodIds.put(method, id);
+        }
+        return method;
+    }
+
+    /**
+     * @return the id of given method, or -1 if the method is not
+     * in this call graph.
+     */
+    private int getId(JMethod method) {
+        Integer id = methodIds.get(method);
+        if (id != null) {
+            return id;
+        }
+        byte[] className = getClassName(method);
+        byte[] subsig = getSubsignature(method);
+        int slot = hash(className, subsig) & (hashCapacity - 1);
+        int entry;
+        while ((entry = getInt(hashTablePos, slot)) != 0) {
+            int candidate = entry - 1;
+            int pos = getInt(methodNamesPos, candidate);
+            if (matches(pos, className) &&
+                    matches(pos + 4 + className.length, subsig)) {
+                return getMethod(candidate) == method ? candidate : -1;
+            }
+            slot = (slot + 1) & (hashCapacity - 1);
+        }
+        return -1;
+    }
+
+    /**
+     * @return true if the string at given position equals given bytes.
+     */
+    private boolean matches(int pos, byte[] bytes) {
+        if (buffer.getInt(pos) != bytes.length) {
+            return false;
+        }
+        for (int i = 0; i < bytes.length; ++i) {
+            if (buffer.get(pos + 4 + i) != bytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Invoke getCallSite(int id) {
+        Invoke callSite = callSites[id];
+        if (callSite == null) {
+            JMethod container = getMethod(getInt(callSiteContainersPos, id));
+            Stmt stmt = container.getIR().getStmt(getInt(callSiteStmtsPos, id));
+            if (!(stmt instanceof Invoke invoke)) {
+                throw new AnalysisException("Call site " + stmt + " of " +
+                        container + " in call graph snapshot is not found");
+            }
+            callSite = callSites[id] = invoke;
+        }
+        return callSite;
+    }
+
+    /**
+     * @return the id of given call site, or -1 if the call site is not
+     * in this call graph.
+     */
+    private int getId(Invoke callSite) {
+        int method = getId(callSite.getContainer());
+        if (method < 0) {
+            return -1;
+        }
+        // call sites of each method are ordered by their indexes
+        int lo = getInt(methodCallSitesPos, method);
+        int hi = getInt(methodCallSitesPos, method + 1) - 1;
+        int index = callSite.getIndex();
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int midIndex = getInt(callSiteStmtsPos, mid);
+            if (midIndex < index) {
+                lo = mid + 1;
+            } else if (midIndex > index) {
+                hi = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    private Edge<Invoke, JMethod> getEdge(int id) {
+        return new Edge<>(KINDS[buffer.get(edgeKindsPos + id)],
+                getCallSite(getInt(edgeSourcesPos, id)),
+                getMethod(getInt(edgeCalleesPos, id)));
+    }
+
+    private Stream<Edge<Invoke, JMethod>> edgesOutOf(int callSite) {
+        return IntStream.range(getInt(edgeOffsetsPos, callSite),
+                        getInt(edgeOffsetsPos, callSite + 1))
+                .mapToObj(this::getEdge);
+    }
+
+    private static <T> Set<T> toSet(Stream<T> stream) {
+        Set<T> set = Sets.newHybridOrderedSet();
+        stream.forEach(set::add);
+        return Collections.unmodifiableSet(set);
+    }
+
+    @Override
+    public Set<Invoke> getCallersOf(JMethod callee) {
+        return toSet(edgesInTo(callee).map(Edge::getCallSite));
+    }
+
+    @Override
+    public Set<JMethod> getCalleesOf(Invoke callSite) {
+        return toSet(edgesOutOf(callSite).map(Edge::getCallee));
+    }
+
+    @Override
+    public Set<JMethod> getCalleesOfM(JMethod caller) {
+        return toSet(callSitesIn(caller)
+                .flatMap(cs -> getCalleesOf(cs).stream()));
+    }
+
+    @Override
+    public JMethod getContainerOf(Invoke callSite) {
+        return callSite.getContainer();
+    }
+
+    @Override
+    public Set<Invoke> getCallSitesIn(JMethod method) {
+        return toSet(callSitesIn(method));
+    }
+
+    @Override
+    public Stream<Invoke> callSitesIn(JMethod method) {
+        int id = getId(method);
+        if (id < 0) {
+            return Stream.empty();
+        }
+        return IntStream.range(getInt(methodCallSitesPos, id),
+                        getInt(methodCallSitesPos, id + 1))
+                .mapToObj(this::getCallSite);
+    }
+
+    @Override
+    public Stream<Edge<Invoke, JMethod>> edgesOutOf(Invoke callSite) {
+        int id = getId(callSite);
+        return id < 0 ? Stream.empty() : edgesOutOf(id);
+    }
+
+    @Override
+    public Stream<Edge<Invoke, JMethod>> edgesInTo(JMethod method) {
+        int id = getId(method);
+        if (id < 0) {
+            return Stream.empty();
+        }
+        return IntStream.range(getInt(inOffsetsPos, id),
+                        getInt(inOffsetsPos, id + 1))
+                .mapToObj(i -> getEdge(getInt(inEdgesPos, i)));
+    }
+
+    @Override
+    public Stream<Edge<Invoke, JMethod>> edges() {
+        return IntStream.range(0, nEdges).mapToObj(this::getEdge);
+    }
+
+    @Override
+    public int getNumberOfEdges() {
+        return nEdges;
+    }
+
+    @Override
+    public Stream<JMethod> entryMethods() {
+        return IntStream.range(0, nEntries)
+                .mapToObj(i -> getMethod(getInt(entriesPos, i)));
+    }
+
+    @Override
+    public Stream<JMethod> reachableMethods() {
+        return IntStream.range(0, nMethods).mapToObj(this::getMethod);
+    }
+
+    @Override
+    public int getNumberOfMethods() {
+        return nMethods;
+    }
+
+    @Override
+    public boolean contains(JMethod method) {
+        return getId(method) >= 0;
+    }
+
+    // Implementation for Graph interface.
+
+    @Override
+    public boolean hasNode(JMethod node) {
+        return contains(node);
+    }
+
+    @Override
+    public boolean hasEdge(JMethod source, JMethod target) {
+        return getSuccsOf(source).contains(target);
+    }
+
+    @Override
+    public Set<MethodEdge<Invoke, JMethod>> getInEdgesOf(JMethod method) {
+        return toSet(edgesInTo(method).map(e ->
+                new MethodEdge<>(e.getCallSite().getContainer(), method, e.getCallSite())));
+    }
+
+    @Override
+    public Set<MethodEdge<Invoke, JMethod>> getOutEdgesOf(JMethod method) {
+        return toSet(callSitesIn(method).flatMap(cs -> edgesOutOf(cs)
+                .map(e -> new MethodEdge<>(method, e.getCallee(), cs))));
+    }
+
+    @Override
+    public Set<JMethod> getPredsOf(JMethod node) {
+        return toSet(edgesInTo(node).map(e -> e.getCallSite().getContainer()));
+    }
+
+    @Override
+    public Set<JMethod> getSuccsOf(JMethod node) {
+        return getCalleesOfM(node);
+    }
+
+    @Override
+    public Set<JMethod> getNodes() {
+        if (nodes == null) {
+            nodes = toSet(reachableMethods());
+        }
+        return nodes;
+    }
+
+    // Implementation for StmtResult interface.
+
+    @Override
+    public boolean isRelevant(Stmt stmt) {
+        return stmt instanceof Invoke;
+    }
+
+    @Override
+    public Set<JMethod> getResult(Stmt stmt) {
+        return getCalleesOf((Invoke) stmt);
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.callgraph;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.World;
+import pascal.taie.analysis.ProgramAnalysis;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.config.Configs;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.AnalysisException;
+import pascal.taie.util.graph.SCC;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Collects statistics of the call graph, including the distribution of
+ * the numbers of targets of call sites, the most polymorphic call sites,
+ * the methods with the most callers, the sizes of the strongly connected
+ * components (SCCs), and the numbers of reachable methods per package.
+ * <p>
+ * The statistics are logged in human-readable format and dumped to
+ * a JSON file, and the result of this analysis is the map of the
+ * statistics which is dumped.
+ */
+public class CallGraphStatistics extends ProgramAnalysis {
+
+    public static final String ID = "cg-stats";
+
+    private static final Logger logger = LogManager.getLogger(CallGraphStatistics.class);
+
+    /**
+     * Number of entries in each top list.
+     */
+    private final int top;
+
+    public CallGraphStatistics(AnalysisConfig config) {
+        super(config);
+        top = getOptions().getInt("top");
+    }
+
+    @Override
+    public Map<String, Object> analyze() {
+        CallGraph<Invoke, JMethod> callGraph = World.get().getResult(CallGraphBuilder.ID);
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("reachable-methods", callGraph.getNumberOfMethods());
+        stats.put("call-edges", callGraph.getNumberOfEdges());
+        List<Invoke> callSites = callGraph.reachableMethods()
+                .flatMap(callGraph::callSitesIn)
+                .toList();
+        stats.put("call-sites", callSites.size());
+        stats.put("targets-per-call-site", histogram(callSites,
+                cs -> callGraph.getCalleesOf(cs).size()));
+        stats.put("polymorphic-call-sites", topEntries(callSites.stream()
+                .collect(Collectors.toMap(CallGraphs::toString,
+                        cs -> callGraph.getCalleesOf(cs).size(), Integer::sum))));
+        stats.put("fan-in", topEntries(callGraph.reachableMethods()
+                .collect(Collectors.toMap(JMethod::toString,
+                        m -> callGraph.getCallersOf(m).size(), Integer::sum))));
+        List<List<JMethod>> sccs = new SCC<>(callGraph).getComponents();
+        stats.put("sccs", sccs.size());
+        stats.put("scc-sizes", histogram(sccs, List::size));
+        stats.put("methods-per-package", sortByValue(callGraph.reachableMethods()
+                .collect(Collectors.toMap(CallGraphStatistics::getPackage,
+                        m -> 1, Integer::sum))));
+        log(stats);
+        dump(stats);
+        return stats;
+    }
+
+    private static String getPackage(JMethod method) {
+        String name = method.getDeclaringClass().getName();
+        int index = name.lastIndexOf('.');
+        return index >= 0 ? name.substring(0, index) : "<default>";
+    }
+
+    /**
+     * @return map from the values of given function to their numbers
+     * of occurrences, ordered by the values.
+     */
+    private static <T> Map<Integer, Integer> histogram(
+            List<T> elements, Function<T, Integer> function) {
+        Map<Integer, Integer> histogram = new TreeMap<>();
+        elements.forEach(e -> histogram.merge(function.apply(e), 1, Integer::sum));
+        return histogram;
+    }
+
+    /**
+     * @return the {@link #top} entries with the greatest values.
+     */
+    private Map<String, Integer> topEntries(Map<String, Integer> map) {
+        return sortByValue(map).entrySet()
+                .stream()
+                .limit(top)
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue,
+                        Integer::sum, LinkedHashMap::new));
+    }
+
+    /**
+     * @return the entries of given map ordered by their values in
+     * descending order, and then by their keys.
+     */
+    private static Map<String, Integer> sortByValue(Map<String, Integer> map) {
+        return map.entrySet()
+                .stream()
+                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed()
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue,
+                        Integer::sum, LinkedHashMap::new));
+    }
+
+    private static void log(Map<String, Object> stats) {
+        logger.info("-------------- Call graph statistics: --------------");
+        stats.forEach((key, value) -> {
+            if (value instanceof Map<?, ?> map) {
+                logger.info("{}:", key);
+                map.forEach((k, v) -> logger.info("  {}: {}", k, v));
+            } else {
+                logger.info("{}: {}", key, value);
+            }
+        });
+    }
+
+    private void dump(Map<String, Object> stats) {
+        String output = getOptions().getString("file");
+        File file = output != null ? new File(output) :
+                new File(Configs.getOutputDir(), "cg-stats.json");
+        logger.info("Dumping call graph statistics to {} ...", file);
+        try {
+            new ObjectMapper()
+                    .writerWithDefaultPrettyPrinter()
+                    .writeValue(file, stats);
+        } catch (IOException e) {
+            throw new AnalysisException("Failed to dump call graph statistics", e);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.callgraph;
+
+import pascal.taie.language.classes.JField;
+import pascal.taie.language.classes.JMethod;
+
+/**
+ * Implementation of the RTA algorithm.
+ * <p>
+ * RTA is the special case of XTA where all methods, fields and arrays
+ * share one set of the classes instantiated in the reachable methods,
+ * i.e., a virtual or interface call site is resolved by dispatching on
+ * the classes which are instantiated anywhere in the reachable part of
+ * the program.
+ */
+class RTABuilder extends XTABuilder {
+
+    private final TypeSet instantiated = new TypeSet();
+
+    @Override
+    TypeSet getTypeSet(JMethod method) {
+        return instantiated;
+    }
+
+    @Override
+    TypeSet getTypeSet(JField field) {
+        return instantiated;
+    }
+
+    @Override
+    TypeSet getArrayTypeSet() {
+        return instantiated;
+    }
+}
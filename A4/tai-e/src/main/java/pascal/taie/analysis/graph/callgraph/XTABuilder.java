@@ -0,0 +1,330 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.callgraph;
+
+import pascal.taie.World;
+import pascal.taie.ir.exp.NewInstance;
+import pascal.taie.ir.proginfo.MethodRef;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.LoadArray;
+import pascal.taie.ir.stmt.LoadField;
+import pascal.taie.ir.stmt.New;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.ir.stmt.StoreArray;
+import pascal.taie.ir.stmt.StoreField;
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JField;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.classes.Subsignature;
+import pascal.taie.language.type.ClassType;
+import pascal.taie.language.type.Type;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Pair;
+import pascal.taie.util.collection.Sets;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+
+/**
+ * Implementation of the XTA algorithm.
+ * <p>
+ * Each reachable method and each field has a set of the classes which
+ * may be instantiated and flow to it, and all arrays share one such set.
+ * A method obtains the classes instantiated by its {@code new} statements,
+ * and the classes flow from callers to callees (filtered by the parameter
+ * types and the declaring class of the callee), from callees back to
+ * callers (filtered by the return type of the callee), and through the
+ * fields and arrays which the methods store and load. The virtual and
+ * interface call sites in a method are resolved by dispatching only on
+ * the classes in the set of the method.
+ * <p>
+ * The classes are propagated incrementally, i.e., only the newly arrived
+ * classes of a set are dispatched and passed to its successors.
+ * The classes instantiated by the JVM or via reflection, and the flows
+ * through exceptions, are not tracked.
+ */
+class XTABuilder implements CGBuilder<Invoke, JMethod> {
+
+    private ClassHierarchy hierarchy;
+
+    private DefaultCallGraph callGraph;
+
+    private final Map<JMethod, TypeSet> methodTypes = Maps.newMap();
+
+    private final Map<JField, TypeSet> fieldTypes = Maps.newMap();
+
+    private final TypeSet arrayTypes = new TypeSet();
+
+    /**
+     * Reachable methods which are not processed yet.
+     */
+    private final Queue<JMethod> newMethods = new ArrayDeque<>();
+
+    /**
+     * Pending classes to be added to type sets.
+     */
+    private final Queue<Pair<TypeSet, Set<JClass>>> workList = new ArrayDeque<>();
+
+    @Override
+    public CallGraph<Invoke, JMethod> build() {
+        hierarchy = World.get().getClassHierarchy();
+        callGraph = new DefaultCallGraph();
+        JMethod entry = World.get().getMainMethod();
+        callGraph.addEntryMethod(entry);
+        addReachable(entry);
+        while (!newMethods.isEmpty() || !workList.isEmpty()) {
+            // processes the new methods first, so that the call sites
+            // of each type set are not changed during propagation
+            JMethod method;
+            while ((method = newMethods.poll()) != null) {
+                processNewMethod(method);
+            }
+            Pair<TypeSet, Set<JClass>> pending = workList.poll();
+            if (pending != null) {
+                propagate(pending.first(), pending.second());
+            }
+        }
+        return callGraph;
+    }
+
+    /**
+     * @return the type set of given method.
+     */
+    TypeSet getTypeSet(JMethod method) {
+        return methodTypes.computeIfAbsent(method, m -> new TypeSet());
+    }
+
+    /**
+     * @return the type set of given field.
+     */
+    TypeSet getTypeSet(JField field) {
+        return fieldTypes.computeIfAbsent(field, f -> new TypeSet());
+    }
+
+    /**
+     * @return the type set shared by all arrays.
+     */
+    TypeSet getArrayTypeSet() {
+        return arrayTypes;
+    }
+
+    private void addReachable(JMethod method) {
+        if (callGraph.addReachableMethod(method)) {
+            newMethods.add(method);
+        }
+    }
+
+    private void processNewMethod(JMethod method) {
+        if (method.isAbstract()) {
+            return;
+        }
+        TypeSet types = getTypeSet(method);
+        Set<JClass> instantiated = Sets.newHybridSet();
+        for (Stmt stmt : method.getIR()) {
+            if (stmt instanceof New newStmt) {
+                if (newStmt.getRValue() instanceof NewInstance newInstance) {
+                    instantiated.add(newInstance.getType().getJClass());
+                }
+            } else if (stmt instanceof Invoke invoke) {
+                CallKind kind = CallGraphs.getCallKind(invoke);
+                if (kind == CallKind.VIRTUAL || kind == CallKind.INTERFACE) {
+                    types.callSites.add(invoke);
+                    dispatchAll(invoke, types.types);
+                } else if (kind == CallKind.STATIC || kind == CallKind.SPECIAL) {
+                    MethodRef ref = invoke.getMethodRef();
+                    JMethod callee = kind == CallKind.STATIC ?
+                            ref.getDeclaringClass().getDeclaredMethod(ref.getSubsignature()) :
+                            dispatch(ref.getDeclaringClass(), ref.getSubsignature());
+                    if (callee != null) {
+                        addCallEdge(invoke, callee);
+                    }
+                }
+            } else if (stmt instanceof StoreField store) {
+                JField field = store.getFieldRef().resolveNullable();
+                if (field != null) {
+                    addFlow(types, getTypeSet(field), getBounds(field.getType()));
+                }
+            } else if (stmt instanceof LoadField load) {
+                JField field = load.getFieldRef().resolveNullable();
+                if (field != null) {
+                    addFlow(getTypeSet(field), types, getBounds(field.getType()));
+                }
+            } else if (stmt instanceof StoreArray) {
+                addFlow(types, getArrayTypeSet(), null);
+            } else if (stmt instanceof LoadArray) {
+                addFlow(getArrayTypeSet(), types, null);
+            }
+        }
+        if (!instantiated.isEmpty()) {
+            workList.add(new Pair<>(types, instantiated));
+        }
+    }
+
+    /**
+     * Adds given classes to given type set, dispatches the call sites of
+     * the set on the new classes, and passes the new classes to the
+     * successors of the set.
+     */
+    private void propagate(TypeSet typeSet, Set<JClass> classes) {
+        Set<JClass> diff = Sets.newHybridSet();
+        for (JClass c : classes) {
+            if (typeSet.types.add(c)) {
+                diff.add(c);
+            }
+        }
+        if (diff.isEmpty()) {
+            return;
+        }
+        for (Invoke callSite : typeSet.callSites) {
+            dispatchAll(callSite, diff);
+        }
+        typeSet.succs.forEach((succ, bounds) -> {
+            Set<JClass> filtered = filter(diff, bounds);
+            if (!filtered.isEmpty()) {
+                workList.add(new Pair<>(succ, filtered));
+            }
+        });
+    }
+
+    /**
+     * Resolves given virtual or interface call site by dispatching on
+     * given receiver classes.
+     */
+    private void dispatchAll(Invoke callSite, Set<JClass> receivers) {
+        MethodRef ref = callSite.getMethodRef();
+        Collection<JClass> subtypes = hierarchy.getAllSubtypesOf(ref.getDeclaringClass());
+        for (JClass receiver : receivers) {
+            if (subtypes.contains(receiver)) {
+                JMethod callee = dispatch(receiver, ref.getSubsignature());
+                if (callee != null) {
+                    addCallEdge(callSite, callee);
+                }
+            }
+        }
+    }
+
+    private void addCallEdge(Invoke callSite, JMethod callee) {
+        if (callGraph.addEdge(new Edge<>(
+                CallGraphs.getCallKind(callSite), callSite, callee))) {
+            addReachable(callee);
+            TypeSet callerTypes = getTypeSet(callSite.getContainer());
+            TypeSet calleeTypes = getTypeSet(callee);
+            List<JClass> paramBounds = new ArrayList<>();
+            if (!callee.isStatic()) {
+                paramBounds.add(callee.getDeclaringClass());
+            }
+            callee.getParamTypes().forEach(t -> paramBounds.addAll(getBounds(t)));
+            addFlow(callerTypes, calleeTypes, paramBounds);
+            addFlow(calleeTypes, callerTypes, getBounds(callee.getReturnType()));
+        }
+    }
+
+    /**
+     * Adds a flow from {@code source} to {@code target}, which passes
+     * the classes that are subtypes of any of the bounds, or all classes
+     * if {@code bounds} is null.
+     */
+    private void addFlow(TypeSet source, TypeSet target,
+                         Collection<JClass> bounds) {
+        if (bounds != null && bounds.isEmpty()) {
+            return;
+        }
+        if (source != target && !source.succs.containsKey(target)) {
+            source.succs.put(target, bounds);
+            Set<JClass> filtered = filter(source.types, bounds);
+            if (!filtered.isEmpty()) {
+                workList.add(new Pair<>(target, filtered));
+            }
+        }
+    }
+
+    private Set<JClass> filter(Set<JClass> classes, Collection<JClass> bounds) {
+        if (bounds == null) {
+            return Set.copyOf(classes);
+        }
+        Set<JClass> result = Sets.newHybridSet();
+        for (JClass bound : bounds) {
+            Collection<JClass> subtypes = hierarchy.getAllSubtypesOf(bound);
+            for (JClass c : classes) {
+                if (subtypes.contains(c)) {
+                    result.add(c);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the classes whose instances can be held by the values
+     * of given type. Arrays are not tracked by their element types,
+     * thus array types have no bounds.
+     */
+    private static Collection<JClass> getBounds(Type type) {
+        if (type instanceof ClassType classType && classType.getJClass() != null) {
+            return List.of(classType.getJClass());
+        }
+        return List.of();
+    }
+
+    /**
+     * Looks up the target method based on given class and method subsignature.
+     *
+     * @return the dispatched target method, or null if no satisfying method
+     * can be found.
+     */
+    private static JMethod dispatch(JClass jclass, Subsignature subsignature) {
+        for (JClass c = jclass; c != null; c = c.getSuperClass()) {
+            JMethod method = c.getDeclaredMethod(subsignature);
+            if (method != null && !method.isAbstract()) {
+                return method;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Set of classes which may flow to a method, a field, or arrays.
+     */
+    static class TypeSet {
+
+        private final Set<JClass> types = Sets.newHybridSet();
+
+        /**
+         * Virtual and interface call sites which are dispatched on
+         * the classes in this set.
+         */
+        private final List<Invoke> callSites = new ArrayList<>();
+
+        /**
+         * Sets to which the classes of this set flow, and the bounds
+         * of the flows.
+         */
+        private final Map<TypeSet, Collection<JClass>> succs = Maps.newMap();
+    }
+}
@@ -75,6 +75,13 @@ public interface ClassHierarchy {
      */
     Collection<JClass> getDirectSubclassesOf(JClass jclass);
 
+    /**
+     * @return all subtypes of given class or interface, i.e., its direct
+     * and indirect subclasses, subinterfaces and implementors, including
+     * itself.
+     */
+    Collection<JClass> getAllSubtypesOf(JClass jclass);
+
     /**
      * Obtains a JRE class by it name.
      *
@@ -0,0 +1,224 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.language.classes;
+
+import java.util.AbstractSet;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import static pascal.taie.util.collection.Maps.newMap;
+
+/**
+ * Index of the subtype relations in a class hierarchy.
+ * <p>
+ * The classes (excluding interfaces) form trees by their superclasses.
+ * They are numbered in the pre-order of a depth-first traversal of each
+ * tree, thus the subclasses of a class are numbered by a contiguous range.
+ * The interfaces are numbered after the classes.
+ * <p>
+ * The subtypes of each class or interface are computed on demand as
+ * bit sets of the numbers, and cached. The queries are thread-safe.
+ */
+class HierarchyIndex {
+
+    private final ClassHierarchy hierarchy;
+
+    private final Map<JClass, Integer> ids = newMap();
+
+    private final List<JClass> classes = new ArrayList<>();
+
+    /**
+     * The subclasses of class of id i are numbered in
+     * {@code [i, end[i])}, indexed by the ids.
+     */
+    private int[] end;
+
+    /**
+     * Cached subtypes, indexed by the ids.
+     */
+    private final List<BitSet> subtypes = new ArrayList<>();
+
+    HierarchyIndex(ClassHierarchy hierarchy) {
+        this.hierarchy = hierarchy;
+        List<JClass> interfaces = new ArrayList<>();
+        List<JClass> nonInterfaces = new ArrayList<>();
+        hierarchy.allClasses().forEach(c -> {
+            if (c.isInterface()) {
+                interfaces.add(c);
+            } else {
+                nonInterfaces.add(c);
+            }
+        });
+        numberClasses(nonInterfaces);
+        interfaces.forEach(this::addId);
+        for (int i = 0; i < classes.size(); ++i) {
+            subtypes.add(null);
+        }
+    }
+
+    private int addId(JClass jclass) {
+        int id = classes.size();
+        ids.put(jclass, id);
+        classes.add(jclass);
+        return id;
+    }
+
+    /**
+     * Numbers the classes by iterative depth-first traversals of the
+     * class trees.
+     */
+    private void numberClasses(List<JClass> nonInterfaces) {
+        List<Integer> ends = new ArrayList<>();
+        // each frame is the id of a class and the iterator of its subclasses
+        Deque<Integer> idStack = new ArrayDeque<>();
+        Deque<Iterator<JClass>> iterStack = new ArrayDeque<>();
+        for (JClass jclass : nonInterfaces) {
+            if (ids.containsKey(jclass)) {
+                continue;
+            }
+            // traverse from the root of the tree, so that all subclasses
+            // of a class are numbered within its range. The root may be
+            // a phantom class which is not in the hierarchy, and each
+            // tree is traversed once, as a numbered class implies that
+            // its whole tree is numbered.
+            JClass root = jclass;
+            while (root.getSuperClass() != null) {
+                root = root.getSuperClass();
+            }
+            int rootId = addId(root);
+            ends.add(0);
+            idStack.push(rootId);
+            iterStack.push(hierarchy.getDirectSubclassesOf(root).iterator());
+            while (!idStack.isEmpty()) {
+                Iterator<JClass> iter = iterStack.peek();
+                if (iter.hasNext()) {
+                    JClass sub = iter.next();
+                    if (!ids.containsKey(sub)) {
+                        int id = addId(sub);
+                        ends.add(0);
+                        idStack.push(id);
+                        iterStack.push(hierarchy.getDirectSubclassesOf(sub).iterator());
+                    }
+                } else {
+                    int id = idStack.pop();
+                    iterStack.pop();
+                    ends.set(id, classes.size());
+                }
+            }
+        }
+        this.end = ends.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * @return the subtypes of given class or interface, including itself.
+     */
+    synchronized Set<JClass> getSubtypesOf(JClass jclass) {
+        Integer id = ids.get(jclass);
+        if (id == null) {
+            return Set.of(jclass);
+        }
+        return new SubtypeSet(computeSubtypes(id));
+    }
+
+    private BitSet computeSubtypes(int id) {
+        BitSet result = subtypes.get(id);
+        if (result == null) {
+            result = new BitSet(classes.size());
+            if (id < end.length) {
+                // the subclasses of a class are numbered contiguously
+                result.set(id, end[id]);
+            } else {
+                result.set(id);
+                JClass iface = classes.get(id);
+                for (JClass sub : hierarchy.getDirectSubinterfacesOf(iface)) {
+                    orSubtypes(result, sub);
+                }
+                for (JClass impl : hierarchy.getDirectImplementorsOf(iface)) {
+                    orSubtypes(result, impl);
+                }
+            }
+            subtypes.set(id, result);
+        }
+        return result;
+    }
+
+    private void orSubtypes(BitSet result, JClass jclass) {
+        Integer id = ids.get(jclass);
+        if (id != null) {
+            result.or(computeSubtypes(id));
+        }
+    }
+
+    /**
+     * Read-only set view of a bit set of class ids.
+     */
+    private class SubtypeSet extends AbstractSet<JClass> {
+
+        private final BitSet bits;
+
+        private SubtypeSet(BitSet bits) {
+            this.bits = bits;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            Integer id = o instanceof JClass ? ids.get(o) : null;
+            return id != null && bits.get(id);
+        }
+
+        @Override
+        public Iterator<JClass> iterator() {
+            return new Iterator<>() {
+
+                private int next = bits.nextSetBit(0);
+
+                @Override
+                public boolean hasNext() {
+                    return next >= 0;
+                }
+
+                @Override
+                public JClass next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    JClass jclass = classes.get(next);
+                    next = bits.nextSetBit(next + 1);
+                    return jclass;
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return bits.cardinality();
+        }
+    }
+}
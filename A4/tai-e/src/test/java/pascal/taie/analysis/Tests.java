@@ -61,6 +61,26 @@ public final class Tests {
      * @param opts      options for the analysis
      */
     public static void test(String main, String classPath, String id, String... opts) {
+        doTest(main, classPath, id, getExpectedFile(classPath, main, id), opts);
+    }
+
+    /**
+     * Starts an analysis for a specific test case, whose expected results
+     * differ from the ones of the default variant of the analysis,
+     * e.g., a call graph built by another algorithm. The expected results
+     * are kept in file {@code <main>-<id>-<variant>-expected.txt}.
+     *
+     * @param variant name of the variant of the analysis
+     * @see #test(String, String, String, String...)
+     */
+    public static void testVariant(String main, String classPath, String id,
+                                   String variant, String... opts) {
+        doTest(main, classPath, id,
+                getExpectedFile(classPath, main, id + "-" + variant), opts);
+    }
+
+    private static void doTest(String main, String classPath, String id,
+                               String file, String... opts) {
         List<String> args = new ArrayList<>();
         args.add("-pp");
         Collections.addAll(args, "-cp", classPath);
@@ -82,7 +102,6 @@ public final class Tests {
         }
         // set up result processor
         String action = GENERATE_EXPECTED_RESULTS ? "dump" : "compare";
-        String file = getExpectedFile(classPath, main, id);
         String processArg = String.format("%s=analyses:[%s];action:%s;file:%s",
                 ResultProcessor.ID, id, action, file);
         Collections.addAll(args, "-a", processArg);
@@ -23,7 +23,14 @@
 package pascal.taie.analysis.graph.callgraph.cha;
 
 import org.junit.Test;
+import pascal.taie.World;
 import pascal.taie.analysis.Tests;
+import pascal.taie.analysis.graph.callgraph.CallGraphStatistics;
+import pascal.taie.config.ConfigException;
+
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
 
 public class CHATest {
     
@@ -50,4 +57,111 @@ public class CHATest {
     public void testAbstractMethod() {
         test("AbstractMethod");
     }
+
+    @Test
+    public void testParallel() {
+        Tests.test("Interface", "src/test/resources/cha/", "cg",
+                "algorithm:cha;parallel:true");
+    }
+
+    @Test
+    public void testRTA() {
+        // static calls are resolved in the same way as CHA
+        Tests.test("StaticCall", "src/test/resources/cha/", "cg",
+                "algorithm:rta");
+        Tests.testVariant("VirtualCall", "src/test/resources/cha/", "cg", "rta",
+                "algorithm:rta");
+        Tests.testVariant("Interface", "src/test/resources/cha/", "cg", "rta",
+                "algorithm:rta");
+    }
+
+    @Test
+    public void testXTA() {
+        Tests.test("StaticCall", "src/test/resources/cha/", "cg",
+                "algorithm:xta");
+        Tests.testVariant("VirtualCall", "src/test/resources/cha/", "cg", "xta",
+                "algorithm:xta");
+        Tests.testVariant("Interface", "src/test/resources/cha/", "cg", "xta",
+                "algorithm:xta");
+    }
+
+    @Test
+    public void testSnapshot() {
+        String file = "output/Interface-cg.snapshot";
+        Tests.test("Interface", "src/test/resources/cha/", "cg",
+                "algorithm:cha;snapshot:" + file);
+        Tests.test("Interface", "src/test/resources/cha/", "cg",
+                "algorithm:snapshot;snapshot:" + file);
+    }
+
+    @Test
+    public void testIncremental() {
+        String file = "output/VirtualCall-cg.snapshot";
+        Tests.test("VirtualCall", "src/test/resources/cha/", "cg",
+                "algorithm:cha;snapshot:" + file);
+        Tests.test("VirtualCall", "src/test/resources/cha/", "cg",
+                "algorithm:cha;base:" + file);
+    }
+
+    @Test
+    public void testIncrementalNewClasses() {
+        // the base is built without C and D
+        String file = "output/Incremental-cg.snapshot";
+        Tests.test("Incremental", "src/test/resources/cha/incremental-base/", "cg",
+                "algorithm:cha;snapshot:" + file);
+        // a.foo() gets C.foo() as its new target, and D inherits A.foo()
+        Tests.test("Incremental", "src/test/resources/cha/incremental/", "cg",
+                "algorithm:cha;base:" + file);
+    }
+
+    @Test(expected = ConfigException.class)
+    public void testIncrementalParallel() {
+        Tests.test("VirtualCall", "src/test/resources/cha/", "cg",
+                "algorithm:cha;parallel:true;base:output/VirtualCall-cg.snapshot");
+    }
+
+    @Test
+    public void testFanOutLimit() {
+        Tests.test("StaticCall", "src/test/resources/cha/", "cg",
+                "algorithm:cha;fan-out-limit:1");
+        // b.foo() has three targets, thus it is deferred,
+        // and the targets are unreachable
+        Tests.testVariant("VirtualCall", "src/test/resources/cha/", "cg", "fan-out",
+                "algorithm:cha;fan-out-limit:1");
+        // the targets of b.foo() in the base are limited as well
+        String file = "output/VirtualCall-cg-fan-out.snapshot";
+        Tests.test("VirtualCall", "src/test/resources/cha/", "cg",
+                "algorithm:cha;snapshot:" + file);
+        Tests.testVariant("VirtualCall", "src/test/resources/cha/", "cg", "fan-out",
+                "algorithm:cha;fan-out-limit:1;base:" + file);
+    }
+
+    @Test
+    public void testStatistics() {
+        Tests.test("StaticCall", "src/test/resources/cha/", "cg",
+                "algorithm:cha", "-a", CallGraphStatistics.ID + "=top:1");
+        Map<String, Object> stats = World.get().getResult(CallGraphStatistics.ID);
+        assertEquals(5, stats.get("reachable-methods"));
+        assertEquals(5, stats.get("call-edges"));
+        assertEquals(5, stats.get("call-sites"));
+        assertEquals(Map.of(1, 5), stats.get("targets-per-call-site"));
+        assertEquals(Map.of("<A: void baz()>", 2), stats.get("fan-in"));
+        // A.baz() and B.qux() call each other
+        assertEquals(4, stats.get("sccs"));
+        assertEquals(Map.of(1, 3, 2, 1), stats.get("scc-sizes"));
+        assertEquals(Map.of("<default>", 5), stats.get("methods-per-package"));
+
+        Tests.test("Interface", "src/test/resources/cha/", "cg",
+                "algorithm:cha", "-a", CallGraphStatistics.ID);
+        stats = World.get().getResult(CallGraphStatistics.ID);
+        // Object.<init>() is reachable from One.<init>()
+        assertEquals(6, stats.get("reachable-methods"));
+        assertEquals(5, stats.get("call-edges"));
+        assertEquals(3, stats.get("call-sites"));
+        assertEquals(Map.of(1, 2, 3, 1), stats.get("targets-per-call-site"));
+        assertEquals(6, stats.get("sccs"));
+        assertEquals(Map.of(1, 6), stats.get("scc-sizes"));
+        assertEquals(Map.of("<default>", 5, "java.lang", 1),
+                stats.get("methods-per-package"));
+    }
 }
@@ -0,0 +1,172 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.language.classes;
+
+import org.junit.Assert;
+import org.junit.Test;
+import pascal.taie.language.annotation.AnnotationHolder;
+import pascal.taie.language.type.ClassType;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+public class HierarchyIndexTest {
+
+    /**
+     * Builds the hierarchy:
+     * <pre>
+     * class Object
+     * class A extends Object implements I
+     * class B extends A
+     * class C extends Object implements J
+     * interface I
+     * interface J extends I
+     * class Mid extends Top implements I
+     * class Sub extends Mid
+     * </pre>
+     * where Top is a phantom class which is not in the hierarchy,
+     * thus Mid and Sub are not reached from the root Object.
+     * Sub is loaded before its superclass Mid.
+     */
+    @Test
+    public void testSubtypes() {
+        List<JClass> loaded = new ArrayList<>();
+        JClassLoader loader = new JClassLoader() {
+            @Override
+            public JClass loadClass(String name) {
+                return loaded.stream()
+                        .filter(c -> c.getName().equals(name))
+                        .findFirst()
+                        .orElse(null);
+            }
+
+            @Override
+            public Collection<JClass> getLoadedClasses() {
+                return loaded;
+            }
+        };
+        JClass object = newClass(loader, "Object", null, false);
+        JClass i = newClass(loader, "I", null, true);
+        JClass j = newClass(loader, "J", null, true, i);
+        JClass a = newClass(loader, "A", object, false, i);
+        JClass b = newClass(loader, "B", a, false);
+        JClass c = newClass(loader, "C", object, false, j);
+        JClass top = newClass(loader, "Top", null, false);
+        JClass mid = newClass(loader, "Mid", top, false, i);
+        JClass sub = newClass(loader, "Sub", mid, false);
+        loaded.addAll(List.of(sub, j, object, a, i, mid, b, c));
+        ClassHierarchy hierarchy = new ClassHierarchyImpl();
+        hierarchy.setDefaultClassLoader(loader);
+        hierarchy.setBootstrapClassLoader(loader);
+        loaded.forEach(hierarchy::addClass);
+        HierarchyIndex index = new HierarchyIndex(hierarchy);
+
+        assertSubtypes(index, object, object, a, b, c);
+        assertSubtypes(index, a, a, b);
+        assertSubtypes(index, b, b);
+        assertSubtypes(index, mid, mid, sub);
+        assertSubtypes(index, top, top, mid, sub);
+        assertSubtypes(index, i, i, j, a, b, c, mid, sub);
+        assertSubtypes(index, j, j, c);
+        JClass unknown = newClass(loader, "Unknown", object, false);
+        assertSubtypes(index, unknown, unknown);
+        Assert.assertFalse(index.getSubtypesOf(a).contains(unknown));
+        Assert.assertFalse(index.getSubtypesOf(a).contains("A"));
+    }
+
+    private static void assertSubtypes(
+            HierarchyIndex index, JClass jclass, JClass... expected) {
+        Set<JClass> subtypes = index.getSubtypesOf(jclass);
+        Assert.assertEquals(Set.of(expected), new HashSet<>(subtypes));
+        Assert.assertEquals(expected.length, subtypes.size());
+        for (JClass e : expected) {
+            Assert.assertTrue(subtypes.contains(e));
+        }
+    }
+
+    private static JClass newClass(JClassLoader loader, String name,
+                                   JClass superClass, boolean isInterface,
+                                   JClass... interfaces) {
+        JClass jclass = new JClass(loader, name);
+        jclass.build(new JClassBuilder() {
+            @Override
+            public void build(JClass jclass) {
+            }
+
+            @Override
+            public Set<Modifier> getModifiers() {
+                return isInterface ?
+                        Set.of(Modifier.INTERFACE, Modifier.ABSTRACT) : Set.of();
+            }
+
+            @Override
+            public String getSimpleName() {
+                return name;
+            }
+
+            @Override
+            public ClassType getClassType() {
+                return null;
+            }
+
+            @Override
+            public JClass getSuperClass() {
+                return superClass;
+            }
+
+            @Override
+            public Collection<JClass> getInterfaces() {
+                return List.of(interfaces);
+            }
+
+            @Override
+            public JClass getOuterClass() {
+                return null;
+            }
+
+            @Override
+            public Collection<JField> getDeclaredFields() {
+                return List.of();
+            }
+
+            @Override
+            public Collection<JMethod> getDeclaredMethods() {
+                return List.of();
+            }
+
+            @Override
+            public AnnotationHolder getAnnotationHolder() {
+                return AnnotationHolder.emptyHolder();
+            }
+
+            @Override
+            public boolean isApplication() {
+                return true;
+            }
+        });
+        return jclass;
+    }
+}
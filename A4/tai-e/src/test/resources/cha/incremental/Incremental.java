@@ -0,0 +1,25 @@
+public class Incremental {
+
+    public static void main(String[] args) {
+        A a = new B();
+        a.foo();
+    }
+}
+
+class A {
+    void foo() {
+    }
+}
+
+class B extends A {
+    void foo() {
+    }
+}
+
+class C extends B {
+    void foo() {
+    }
+}
+
+class D extends A {
+}
@@ -114,9 +114,18 @@ public class ConstantPropagation extends
             LValue lvalue = definitionStmt.getLValue();
             RValue rvalue = definitionStmt.getRValue();
             if (lvalue instanceof Var var && canHoldInt(var)) {
-                var newout = in.copy();
-                newout.update(var, evaluate(rvalue, in));
-                return out.copyFrom(newout);
+                // copy in to out except var, instead of copying whole in
+                Value value = evaluate(rvalue, in);
+                boolean changed = false;
+                for (Var key : in.keySet()) {
+                    if (!key.equals(var)) {
+                        changed |= out.update(key, in.get(key));
+                    }
+                }
+                if (!value.isUndef()) {
+                    changed |= out.update(var, value);
+                }
+                return changed;
             }
         }
         return out.copyFrom(in);
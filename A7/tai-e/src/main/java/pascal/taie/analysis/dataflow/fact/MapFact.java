@@ -42,8 +42,18 @@ public class MapFact<K, V> {
 
     /**
      * The map holding the mappings of this MapFact.
+     * The map may be shared with copies of this fact (see {@link #shared}),
+     * thus subclasses should only read it, and modify this fact via
+     * the methods of this class.
      */
-    protected final Map<K, V> map;
+    protected Map<K, V> map;
+
+    /**
+     * Whether {@link #map} is shared with other facts. A shared map is
+     * never modified, and it is copied before the first modification
+     * of any fact sharing it, so that {@link #copy()} costs O(1).
+     */
+    private boolean shared;
 
     /**
      * Constructs a new MapFact with the same mappings as specified Map.
@@ -54,6 +64,16 @@ public class MapFact<K, V> {
         this.map = Maps.newHybridMap(map);
     }
 
+    /**
+     * Constructs a new MapFact which shares the mappings of given fact
+     * until either of them is modified.
+     */
+    protected MapFact(MapFact<K, V> fact) {
+        fact.shared = true;
+        this.map = fact.map;
+        this.shared = true;
+    }
+
     /**
      * @return the value to which the specified key is mapped,
      * or null if this map contains no mapping for the key.
@@ -68,7 +88,11 @@ public class MapFact<K, V> {
      * @return if the update changes this fact.
      */
     public boolean update(K key, V value) {
-        return !Objects.equals(map.put(key, value), value);
+        if (Objects.equals(map.get(key), value)) {
+            return false;
+        }
+        mutableMap().put(key, value);
+        return true;
     }
 
     /**
@@ -78,7 +102,7 @@ public class MapFact<K, V> {
      * or null if there was no mapping for key.
      */
     public V remove(K key) {
-        return map.remove(key);
+        return map.containsKey(key) ? mutableMap().remove(key) : null;
     }
 
     /**
@@ -98,14 +122,19 @@ public class MapFact<K, V> {
      * Creates and returns a copy of this fact.
      */
     public MapFact<K, V> copy() {
-        return new MapFact<>(this.map);
+        return new MapFact<>(this);
     }
 
     /**
      * Clears all content in this fact.
      */
     public void clear() {
-        map.clear();
+        if (shared) {
+            map = Maps.newHybridMap();
+            shared = false;
+        } else {
+            map.clear();
+        }
     }
 
     /**
@@ -132,6 +161,17 @@ public class MapFact<K, V> {
         map.forEach(action);
     }
 
+    /**
+     * @return the map of this fact which is safe to modify.
+     */
+    private Map<K, V> mutableMap() {
+        if (shared) {
+            map = Maps.newHybridMap(map);
+            shared = false;
+        }
+        return map;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
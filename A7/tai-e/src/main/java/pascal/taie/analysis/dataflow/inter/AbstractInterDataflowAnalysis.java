@@ -33,6 +33,7 @@ import pascal.taie.analysis.graph.icfg.ICFGEdge;
 import pascal.taie.analysis.graph.icfg.NormalEdge;
 import pascal.taie.analysis.graph.icfg.ReturnEdge;
 import pascal.taie.config.AnalysisConfig;
+import pascal.taie.config.ConfigException;
 
 /**
  * Provides common functionalities for {@link InterDataflowAnalysis} implementations.
@@ -47,7 +48,7 @@ public abstract class AbstractInterDataflowAnalysis<Method, Node, Fact>
 
     protected ICFG<Method, Node> icfg;
 
-    protected InterSolver<Method, Node, Fact> solver;
+    protected InterDataflowSolver<Node, Fact> solver;
 
     public AbstractInterDataflowAnalysis(AnalysisConfig config) {
         super(config);
@@ -121,9 +122,34 @@ public abstract class AbstractInterDataflowAnalysis<Method, Node, Fact>
     public Object analyze() {
         icfg = World.get().getResult(ICFGBuilder.ID);
         initialize();
-        solver = new InterSolver<>(this, icfg);
+        solver = makeSolver();
         DataflowResult<Node, Fact> result = solver.solve();
         finish();
         return result;
     }
+
+    /**
+     * Creates the solver specified by option "solver", i.e., "worklist"
+     * (default) for {@link InterSolver}, or "summary" for
+     * {@link SummaryInterSolver}. For the former, option "memo-capacity"
+     * specifies the capacity of {@link CalleeSummaryCache}.
+     */
+    private InterDataflowSolver<Node, Fact> makeSolver() {
+        String solver = getOptions().getString("solver");
+        if (solver == null || solver.equals("worklist")) {
+            Object memoCapacity = getOptions().get("memo-capacity");
+            if (memoCapacity == null) {
+                return new InterSolver<>(this, icfg);
+            }
+            if (!(memoCapacity instanceof Integer capacity) || capacity < 0) {
+                throw new ConfigException(
+                        "Invalid memo-capacity: " + memoCapacity);
+            }
+            return new InterSolver<>(this, icfg, capacity);
+        } else if (solver.equals("summary")) {
+            return new SummaryInterSolver<>(this, icfg);
+        } else {
+            throw new ConfigException("Unexpected solver: " + solver);
+        }
+    }
 }
@@ -0,0 +1,239 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.inter;
+
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.icfg.CallEdge;
+import pascal.taie.analysis.graph.icfg.ICFG;
+import pascal.taie.analysis.graph.icfg.ICFGEdge;
+import pascal.taie.analysis.graph.icfg.NormalEdge;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Pair;
+import pascal.taie.util.collection.SetQueue;
+import pascal.taie.util.collection.Sets;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+
+/**
+ * Memoizes the exit facts of cheap callees for their entry facts,
+ * which is used by {@link InterSolver}.
+ * <p>
+ * A callee is cheap if it contains no call sites. Such callees are not
+ * entered via call edges; instead, each call site passes its entry fact to
+ * the callee, and obtains the exit fact which is computed by analyzing the
+ * callee alone for the entry fact, or reused from this cache if the same
+ * entry fact has been seen for the callee. The facts computed for the nodes
+ * of the callees are met into the result of the solver.
+ * <p>
+ * Once a node of a memoized callee is added to the work list by the
+ * analysis (see {@link InterSolver#addToWorkList(Object)}), its facts depend
+ * on the flows other than the entry fact, thus the callee is excluded from
+ * memoization and solved as usual from then on.
+ * <p>
+ * The cache holds at most given number of entries, and evicts the least
+ * recently used entry when it is full.
+ */
+class CalleeSummaryCache<Method, Node, Fact> {
+
+    private final InterDataflowAnalysis<Node, Fact> analysis;
+
+    private final ICFG<Method, Node> icfg;
+
+    private final Map<Pair<Method, Fact>, Fact> cache;
+
+    /**
+     * Nodes of memoized callees, or empty list for the other methods.
+     */
+    private final Map<Method, List<Node>> calleeNodes = Maps.newMap();
+
+    /**
+     * Methods which are excluded from memoization, including the entry
+     * methods which are not called by any call sites.
+     */
+    private final Set<Method> excluded = Sets.newSet();
+
+    private long hits;
+
+    private long misses;
+
+    private long evictions;
+
+    CalleeSummaryCache(InterDataflowAnalysis<Node, Fact> analysis,
+                       ICFG<Method, Node> icfg, int capacity) {
+        this.analysis = analysis;
+        this.icfg = icfg;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(
+                    Map.Entry<Pair<Method, Fact>, Fact> eldest) {
+                if (size() > capacity) {
+                    ++evictions;
+                    return true;
+                }
+                return false;
+            }
+        };
+        icfg.entryMethods().forEach(excluded::add);
+    }
+
+    /**
+     * @return true if the facts of given method are computed by this cache.
+     */
+    boolean isMemoized(Method method) {
+        return !excluded.contains(method) && !getNodes(method).isEmpty();
+    }
+
+    /**
+     * @return the nodes of given method if it contains no call sites,
+     * otherwise an empty list.
+     */
+    private List<Node> getNodes(Method method) {
+        return calleeNodes.computeIfAbsent(method, m -> {
+            List<Node> nodes = new ArrayList<>();
+            Set<Node> visited = Sets.newSet();
+            Queue<Node> queue = new SetQueue<>();
+            queue.add(icfg.getEntryOf(m));
+            while (!queue.isEmpty()) {
+                Node node = queue.poll();
+                if (visited.add(node)) {
+                    if (icfg.isCallSite(node)) {
+                        return List.of();
+                    }
+                    nodes.add(node);
+                    for (ICFGEdge<Node> edge : icfg.getOutEdgesOf(node)) {
+                        if (edge instanceof NormalEdge) {
+                            queue.add(edge.getTarget());
+                        }
+                    }
+                }
+            }
+            return nodes;
+        });
+    }
+
+    /**
+     * @return the exit fact of given memoized callee for given entry fact.
+     * The facts of the callee nodes are met into {@code result}.
+     */
+    Fact getExitFact(Method callee, Fact entryFact,
+                     DataflowResult<Node, Fact> result) {
+        Pair<Method, Fact> key = new Pair<>(callee, entryFact);
+        Fact exitFact = cache.get(key);
+        if (exitFact != null) {
+            ++hits;
+            return exitFact;
+        }
+        ++misses;
+        exitFact = solve(callee, entryFact, result);
+        if (isMemoized(callee)) {
+            cache.put(key, exitFact);
+        }
+        return exitFact;
+    }
+
+    /**
+     * Analyzes given callee alone for given entry fact.
+     */
+    private Fact solve(Method callee, Fact entryFact,
+                       DataflowResult<Node, Fact> result) {
+        Node entry = icfg.getEntryOf(callee);
+        DataflowResult<Node, Fact> facts = new DataflowResult<>();
+        List<Node> nodes = getNodes(callee);
+        nodes.forEach(node -> facts.setOutFact(node, analysis.newInitialFact()));
+        Queue<Node> workList = new SetQueue<>();
+        workList.addAll(nodes);
+        while (!workList.isEmpty()) {
+            Node node = workList.poll();
+            Fact in;
+            if (node.equals(entry)) {
+                in = entryFact;
+            } else {
+                in = analysis.newInitialFact();
+                for (ICFGEdge<Node> edge : icfg.getInEdgesOf(node)) {
+                    Fact predOut = facts.getOutFact(edge.getSource());
+                    if (predOut != null) {
+                        analysis.meetInto(analysis.transferEdge(edge, predOut), in);
+                    }
+                }
+            }
+            facts.setInFact(node, in);
+            analysis.meetInto(in, result.getInFact(node));
+            Fact out = facts.getOutFact(node);
+            if (analysis.transferNode(node, in, out)) {
+                for (ICFGEdge<Node> edge : icfg.getOutEdgesOf(node)) {
+                    if (edge instanceof NormalEdge) {
+                        workList.add(edge.getTarget());
+                    }
+                }
+            }
+            analysis.meetInto(out, result.getOutFact(node));
+        }
+        Fact exitFact = facts.getOutFact(icfg.getExitOf(callee));
+        // the exit is not reached from the entry if the callee never returns
+        return exitFact != null ? exitFact : analysis.newInitialFact();
+    }
+
+    /**
+     * Excludes given method from memoization.
+     *
+     * @return the nodes of the method if it was memoized before the call,
+     * otherwise an empty list.
+     */
+    List<Node> exclude(Method method) {
+        if (isMemoized(method)) {
+            excluded.add(method);
+            cache.keySet().removeIf(key -> key.first().equals(method));
+            return getNodes(method);
+        }
+        return List.of();
+    }
+
+    /**
+     * @return the call edge from given call site to given callee.
+     */
+    CallEdge<Node> getCallEdge(Node callSite, Method callee) {
+        Node entry = icfg.getEntryOf(callee);
+        for (ICFGEdge<Node> edge : icfg.getOutEdgesOf(callSite)) {
+            if (edge instanceof CallEdge<Node> callEdge &&
+                    edge.getTarget().equals(entry)) {
+                return callEdge;
+            }
+        }
+        throw new IllegalArgumentException(
+                "No call edge from " + callSite + " to " + callee);
+    }
+
+    @Override
+    public String toString() {
+        long lookups = hits + misses;
+        return String.format("%d hits, %d misses (hit rate %.1f%%), " +
+                        "%d evictions, %d callees excluded",
+                hits, misses, lookups == 0 ? 0.0 : 100.0 * hits / lookups,
+                evictions, excluded.size());
+    }
+}
@@ -25,9 +25,6 @@ package pascal.taie.analysis.dataflow.inter;
 import java.util.*;
 import java.util.stream.Collectors;
 
-import com.google.common.collect.HashMultimap;
-import com.google.common.collect.Multimap;
-
 import pascal.taie.World;
 import pascal.taie.analysis.dataflow.analysis.constprop.CPFact;
 import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
@@ -38,7 +35,9 @@ import pascal.taie.analysis.graph.icfg.CallEdge;
 import pascal.taie.analysis.graph.icfg.CallToReturnEdge;
 import pascal.taie.analysis.graph.icfg.NormalEdge;
 import pascal.taie.analysis.graph.icfg.ReturnEdge;
+import pascal.taie.analysis.pta.AliasIndex;
 import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.analysis.pta.core.heap.Obj;
 import pascal.taie.config.AnalysisConfig;
 import pascal.taie.ir.IR;
 import pascal.taie.ir.exp.ArrayAccess;
@@ -53,6 +52,10 @@ import pascal.taie.ir.stmt.StoreArray;
 import pascal.taie.ir.stmt.StoreField;
 import pascal.taie.language.classes.JField;
 import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Sets;
+import pascal.taie.util.collection.TwoKeyMap;
 
 /**
  * Implementation of interprocedural constant propagation for int values.
@@ -65,10 +68,45 @@ public class InterConstantPropagation extends
     private final ConstantPropagation cp;
 
     private PointerAnalysisResult pta;
-    private Multimap<Var, Stmt> storeFields = HashMultimap.create();
-    private Multimap<Var, Stmt> storeArrays = HashMultimap.create();
-    private Multimap<Var, Stmt> loadFields = HashMultimap.create();
-    private Multimap<Var, Stmt> loadArrays = HashMultimap.create();
+
+    private AliasIndex aliasIndex;
+
+    /**
+     * Static loads of each field which have been analyzed. The loads
+     * which are not analyzed yet will read the values stored so far
+     * when they are analyzed, thus they need not be re-analyzed.
+     */
+    private final MultiMap<JField, LoadField> staticLoads = Maps.newMultiMap();
+
+    /**
+     * Meet of the values stored to each static field so far,
+     * which is updated when a static store is analyzed.
+     */
+    private final Map<JField, Value> staticFieldValues = Maps.newMap();
+
+    /**
+     * Meet of the values stored to each instance field of each object
+     * so far, which is updated when an instance store is analyzed.
+     */
+    private final TwoKeyMap<Obj, JField, Value> fieldValues = Maps.newTwoKeyMap();
+
+    /**
+     * Values stored to the elements of each array object so far.
+     */
+    private final Map<Obj, ArrayValues> arrayValues = Maps.newMap();
+
+    /**
+     * Whether a call site whose callees are sliced away from the ICFG has
+     * been analyzed. Such callees may store any values to the fields and
+     * arrays, thus all field and array loads give NAC since then.
+     */
+    private boolean heapHavocked = false;
+
+    /**
+     * Field and array loads which have been analyzed, which are
+     * re-analyzed when the heap is havocked.
+     */
+    private final Set<Stmt> heapLoads = Sets.newSet();
 
     public InterConstantPropagation(AnalysisConfig config) {
         super(config);
@@ -80,18 +118,7 @@ public class InterConstantPropagation extends
         String ptaId = getOptions().getString("pta");
         pta = World.get().getResult(ptaId);
         // You can do initialization work here
-        pta.getVars().forEach(x->{
-            pta.getVars().forEach(y->{
-                pta.getPointsToSet(x).forEach(obj->{
-                    if(pta.getPointsToSet(y).contains(obj)){
-                        storeFields.putAll(x , y.getStoreFields());
-                        storeArrays.putAll(x , y.getStoreArrays());
-                        loadFields.putAll(x , y.getLoadFields());
-                        loadArrays.putAll(x , y.getLoadArrays());
-                    }
-                });
-            });
-        });
+        aliasIndex = new AliasIndex(pta);
     }
 
     @Override
@@ -118,6 +145,10 @@ public class InterConstantPropagation extends
     @Override
     protected boolean transferCallNode(Stmt stmt, CPFact in, CPFact out) {
         // TODO - finish me
+        if (!heapHavocked && icfg.isPrunedCallSite(stmt)) {
+            heapHavocked = true;
+            heapLoads.forEach(solver::addToWorkList);
+        }
         return out.copyFrom(in);
     }
 
@@ -126,31 +157,19 @@ public class InterConstantPropagation extends
         // TODO - finish me
         if(stmt instanceof LoadField loadField){
             JField jField=loadField.getRValue().getFieldRef().resolve();
-            Set<Value> staticLoad = new HashSet<>();
             Value res = Value.getUndef();
-            if(loadField.isStatic()){
-                icfg.forEach(allStmt->{
-                    if(allStmt instanceof StoreField storeField && storeField.isStatic()){
-                        if(jField==storeField.getFieldAccess().getFieldRef().resolve()){
-                            staticLoad.add(solver.getResult().getInFact(storeField).get(storeField.getRValue()));
-                        }
-                    }
-                });
+            heapLoads.add(loadField);
+            if (heapHavocked) {
+                res = Value.getNAC();
+            } else if(loadField.isStatic()){
+                staticLoads.put(jField, loadField);
+                res = staticFieldValues.getOrDefault(jField, Value.getUndef());
             }
             else{
                 Var base = ((InstanceFieldAccess) loadField.getFieldAccess()).getBase();
-                Set<StoreField> store_to_field = new HashSet<>();
-                storeFields.get(base).forEach(storefield->{
-                    if(((StoreField)storefield).getFieldRef().resolve()==jField){
-                        store_to_field.add((StoreField)storefield);
-                    }
-                });
-                store_to_field.forEach(storeField->{
-                    staticLoad.add(solver.getResult().getInFact(storeField).get(storeField.getRValue()));
-                });
-            }
-            for (Value value : staticLoad) {
-                res = cp.meetValue(res, value);
+                for (Obj obj : pta.getPointsToSet(base)) {
+                    res = cp.meetValue(res, getFieldValue(obj, jField));
+                }
             }
             CPFact in_copy = in.copy();
             in_copy.remove(loadField.getLValue());
@@ -160,32 +179,19 @@ public class InterConstantPropagation extends
         else if(stmt instanceof LoadArray loadArray){
             Var lValue = loadArray.getLValue();
             ArrayAccess arrayAccess = loadArray.getArrayAccess();
-            Set<Value> arraystore = new HashSet<>();
+            Value index = in.get(arrayAccess.getIndex());
             Value res = Value.getUndef();
-            
-            if (solver.getResult().getInFact(stmt).get(arrayAccess.getIndex()) == Value.getUndef()) {
-                CPFact in_copy = in.copy();
-                in_copy.update(lValue, Value.getUndef());
-                return out.copyFrom(in_copy);
-            }
-
-            Set<StoreArray> collects = new HashSet<>();
-            for (Object storeArrayObj : storeArrays.get(arrayAccess.getBase())) {
-                StoreArray storeArray = (StoreArray) storeArrayObj;
-                Value arrayValue = solver.getResult().getInFact(storeArray).get(storeArray.getArrayAccess().getIndex());
-                if (arrayValue != Value.getUndef()) {
-                    Value stmtValue = solver.getResult().getInFact(stmt)
-                                            .get(arrayAccess.getIndex());
-                    if (stmtValue == Value.getNAC() || arrayValue == Value.getNAC() || arrayValue == stmtValue) {
-                        collects.add(storeArray);
+            heapLoads.add(loadArray);
+            if (heapHavocked) {
+                res = Value.getNAC();
+            } else if (!index.isUndef()) {
+                for (Obj obj : pta.getPointsToSet(arrayAccess.getBase())) {
+                    ArrayValues values = arrayValues.get(obj);
+                    if (values != null) {
+                        res = cp.meetValue(res, values.get(index));
                     }
                 }
             }
-
-            collects.forEach(storeArray->{arraystore.add(solver.getResult().getInFact(storeArray).get(storeArray.getRValue()));});
-            for (Value value : arraystore) {
-                res = cp.meetValue(res, value);
-            }
             CPFact in_copy = in.copy();
             in_copy.remove(lValue);
             in_copy.update(lValue, res);
@@ -193,40 +199,44 @@ public class InterConstantPropagation extends
         }
         else if(stmt instanceof StoreField storeField){
             JField jField = storeField.getFieldRef().resolve();
-            Set<Stmt> staticStore = new HashSet<>();
+            Value value = in.get(storeField.getRValue());
             if (storeField.isStatic()) {
-                icfg.forEach(allStmt->{
-                    if(allStmt instanceof LoadField loadField && loadField.isStatic()){
-                        if(jField==storeField.getFieldAccess().getFieldRef().resolve()){
-                            staticStore.add(allStmt);
-                        }
-                    }
-                });
-                staticStore.forEach(arg->solver.getWorkList().offer(arg));
+                // the facts only grow, thus the meet of the values stored
+                // so far equals the meet over the current IN facts of
+                // all stores to the field
+                Value oldValue = staticFieldValues.getOrDefault(jField, Value.getUndef());
+                Value newValue = cp.meetValue(oldValue, value);
+                if (!newValue.equals(oldValue)) {
+                    staticFieldValues.put(jField, newValue);
+                    staticLoads.get(jField).forEach(solver::addToWorkList);
+                }
             } else {
-                loadFields.get(((InstanceFieldAccess) storeField.getFieldAccess()).getBase()).forEach(arg->solver.getWorkList().offer(arg));
+                Var base = ((InstanceFieldAccess) storeField.getFieldAccess()).getBase();
+                for (Obj obj : pta.getPointsToSet(base)) {
+                    Value oldValue = getFieldValue(obj, jField);
+                    Value newValue = cp.meetValue(oldValue, value);
+                    if (!newValue.equals(oldValue)) {
+                        fieldValues.put(obj, jField, newValue);
+                        aliasIndex.getLoadFields(obj, jField)
+                                .forEach(solver::addToWorkList);
+                    }
+                }
             }
             return out.copyFrom(in);
         }
         else if(stmt instanceof StoreArray storeArray){
-            Var base = storeArray.getArrayAccess().getBase();
-            Var index = storeArray.getArrayAccess().getIndex();
-            Value i_value = solver.getResult().getInFact(stmt).get(index);
-            if (i_value == Value.getUndef()) {
-                return out.copyFrom(in);
-            }
-
-            Set<LoadArray> collects = new HashSet<>();
-            for (Object loadArrayObj : loadArrays.get(base)) {
-                LoadArray loadArray = (LoadArray) loadArrayObj;
-                Value arrayValue = solver.getResult().getInFact(loadArray).get(loadArray.getArrayAccess().getIndex());
-                if (arrayValue != Value.getUndef()) {
-                    if (i_value == Value.getNAC() || arrayValue == Value.getNAC() || arrayValue == i_value) {
-                        collects.add(loadArray);
+            ArrayAccess arrayAccess = storeArray.getArrayAccess();
+            Value index = in.get(arrayAccess.getIndex());
+            if (!index.isUndef()) {
+                Value value = in.get(storeArray.getRValue());
+                for (Obj obj : pta.getPointsToSet(arrayAccess.getBase())) {
+                    if (arrayValues.computeIfAbsent(obj, o -> new ArrayValues())
+                            .update(index, value)) {
+                        aliasIndex.getLoadArrays(obj)
+                                .forEach(solver::addToWorkList);
                     }
                 }
             }
-            collects.forEach(arg->solver.getWorkList().add(arg));
             return out.copyFrom(in);
         }
         return cp.transferNode(stmt, in, out);
@@ -245,7 +255,12 @@ public class InterConstantPropagation extends
         Var target = callSite.getResult();
         CPFact ret = out.copy();
         if(target != null){
-            ret.remove(target);
+            if (icfg.isPrunedCallSite(callSite)) {
+                // the callees which are sliced away may return any value
+                ret.update(target, Value.getNAC());
+            } else {
+                ret.remove(target);
+            }
         }
         return ret;
     }
@@ -283,4 +298,73 @@ public class InterConstantPropagation extends
 
         return ret;
     }
+
+    private Value getFieldValue(Obj obj, JField field) {
+        Value value = fieldValues.get(obj, field);
+        return value != null ? value : Value.getUndef();
+    }
+
+    /**
+     * Values stored to the elements of an array object, grouped by
+     * the values of the indexes. The values stored via UNDEF indexes
+     * are ignored, as such stores are not reachable yet.
+     */
+    private class ArrayValues {
+
+        /**
+         * Meet of all values stored to the array.
+         */
+        private Value all = Value.getUndef();
+
+        /**
+         * Meet of the values stored via NAC indexes.
+         */
+        private Value nacIndexed = Value.getUndef();
+
+        /**
+         * Meet of the values stored via each constant index.
+         */
+        private final Map<Integer, Value> constIndexed = Maps.newMap();
+
+        /**
+         * Meets given value into the values stored via given index.
+         *
+         * @return true if the values changed.
+         */
+        private boolean update(Value index, Value value) {
+            boolean changed = false;
+            Value newAll = cp.meetValue(all, value);
+            if (!newAll.equals(all)) {
+                all = newAll;
+                changed = true;
+            }
+            if (index.isNAC()) {
+                Value newValue = cp.meetValue(nacIndexed, value);
+                if (!newValue.equals(nacIndexed)) {
+                    nacIndexed = newValue;
+                    changed = true;
+                }
+            } else {
+                Value oldValue = constIndexed.getOrDefault(
+                        index.getConstant(), Value.getUndef());
+                Value newValue = cp.meetValue(oldValue, value);
+                if (!newValue.equals(oldValue)) {
+                    constIndexed.put(index.getConstant(), newValue);
+                    changed = true;
+                }
+            }
+            return changed;
+        }
+
+        /**
+         * @return the meet of the values which may be loaded via given index.
+         */
+        private Value get(Value index) {
+            if (index.isNAC()) {
+                return all;
+            }
+            return cp.meetValue(nacIndexed, constIndexed.getOrDefault(
+                    index.getConstant(), Value.getUndef()));
+        }
+    }
 }
@@ -0,0 +1,55 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.inter;
+
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+
+/**
+ * Solver for inter-procedural data-flow analysis.
+ *
+ * @param <Node> type of ICFG nodes
+ * @param <Fact> type of data-flow facts
+ */
+interface InterDataflowSolver<Node, Fact> {
+
+    /**
+     * Solves the analysis over the ICFG.
+     *
+     * @return the result of the analysis.
+     */
+    DataflowResult<Node, Fact> solve();
+
+    /**
+     * @return the (partial, if the solver is running) result of the analysis.
+     */
+    DataflowResult<Node, Fact> getResult();
+
+    /**
+     * Adds given node to the work list, so that it will be analyzed again.
+     * Analyses use this method to propagate the facts which do not flow
+     * along ICFG edges, e.g., the ones via aliased heap locations.
+     * Nodes which are not in the ICFG, e.g., the ones of the methods
+     * sliced away from it, are ignored.
+     */
+    void addToWorkList(Node node);
+}
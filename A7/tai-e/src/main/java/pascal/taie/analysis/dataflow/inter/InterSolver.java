@@ -22,12 +22,16 @@
 
 package pascal.taie.analysis.dataflow.inter;
 
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import pascal.taie.analysis.dataflow.analysis.constprop.CPFact;
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
 import pascal.taie.analysis.graph.icfg.ICFG;
+import pascal.taie.analysis.graph.icfg.ReturnEdge;
 import pascal.taie.util.collection.SetQueue;
+import pascal.taie.util.collection.Sets;
 
-import java.util.LinkedList;
+import java.util.List;
 import java.util.Queue;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -37,7 +41,10 @@ import java.util.stream.Collectors;
  * The workload of inter-procedural analysis is heavy, thus we always
  * adopt work-list algorithm for efficiency.
  */
-class InterSolver<Method, Node, Fact> {
+class InterSolver<Method, Node, Fact>
+        implements InterDataflowSolver<Node, Fact> {
+
+    private static final Logger logger = LogManager.getLogger(InterSolver.class);
 
     private final InterDataflowAnalysis<Node, Fact> analysis;
 
@@ -45,53 +52,132 @@ class InterSolver<Method, Node, Fact> {
 
     private DataflowResult<Node, Fact> result;
 
-    private Queue<Node> workList;
+    private MethodOrderedWorkList<Method, Node> workList;
+
+    /**
+     * Nodes which have been analyzed.
+     */
+    private final Set<Node> reached = Sets.newSet();
+
+    /**
+     * Cache of the exit facts of cheap callees, or null if disabled.
+     */
+    private final CalleeSummaryCache<Method, Node, Fact> calleeSummaries;
 
     InterSolver(InterDataflowAnalysis<Node, Fact> analysis,
                 ICFG<Method, Node> icfg) {
+        this(analysis, icfg, 0);
+    }
+
+    /**
+     * @param memoCapacity maximum number of memoized callee summaries,
+     *                     0 to disable memoization.
+     *                     See {@link CalleeSummaryCache}.
+     */
+    InterSolver(InterDataflowAnalysis<Node, Fact> analysis,
+                ICFG<Method, Node> icfg, int memoCapacity) {
         this.analysis = analysis;
         this.icfg = icfg;
+        this.calleeSummaries = memoCapacity > 0 ?
+                new CalleeSummaryCache<>(analysis, icfg, memoCapacity) : null;
     }
 
-    DataflowResult<Node, Fact> solve() {
-        result = new DataflowResult<>();
+    @Override
+    public DataflowResult<Node, Fact> solve() {
+        result = new LazyDataflowResult<>(analysis::newInitialFact);
         initialize();
         doSolve();
+        logger.info("Work list: {} pushes ({} duplicates suppressed), {} pops",
+                workList.getPushes(), workList.getDuplicates(), workList.getPops());
+        if (calleeSummaries != null) {
+            logger.info("Callee summaries: {}", calleeSummaries);
+        }
         return result;
     }
 
     private void initialize() {
         // TODO - finish me
-        workList=new LinkedList<>(icfg.getNodes());
-        icfg.forEach(node->{
-            result.setInFact(node, analysis.newInitialFact());
-            result.setOutFact(node, analysis.newInitialFact());
-        });
+        workList = new MethodOrderedWorkList<>(icfg);
+        // the solver starts from the entry methods, and the other nodes
+        // are reached via ICFG edges (see doSolve()), thus the ICFG is
+        // not traversed up front
         icfg.entryMethods().forEach(method -> {
             Node entry = icfg.getEntryOf(method);
             result.setInFact(entry, analysis.newInitialFact());
             result.setOutFact(entry, analysis.newBoundaryFact(entry));
+            workList.add(entry);
         });
     }
 
     private void doSolve() {
         // TODO - finish me
-        icfg.getNodes().forEach(workList::offer);
         while(!workList.isEmpty()){
             Node node = workList.poll();
+            if (isMemoized(node)) {
+                // facts of memoized callees are computed by the cache
+                continue;
+            }
             for(var prev_edge :icfg.getInEdgesOf(node)){
-                Fact prev_out=result.getOutFact(prev_edge.getSource());
+                Fact prev_out = prev_edge instanceof ReturnEdge<Node> returnEdge ?
+                        getCalleeExitFact(returnEdge) :
+                        result.getOutFact(prev_edge.getSource());
                 analysis.meetInto(analysis.transferEdge(prev_edge, prev_out), result.getInFact(node));
             }
-            if(analysis.transferNode(node,result.getInFact(node),result.getOutFact(node))){
+            // successors of a node are reached when it is first analyzed,
+            // even if its OUT fact is unchanged
+            boolean firstVisit = reached.add(node);
+            if(analysis.transferNode(node,result.getInFact(node),result.getOutFact(node))
+                    || firstVisit){
                 icfg.getSuccsOf(node).forEach(workList::offer);
             }
         }
     }
+    @Override
     public DataflowResult<Node, Fact> getResult(){
         return result;
     }
     public Queue<Node> getWorkList(){
         return workList;
     }
+
+    @Override
+    public void addToWorkList(Node node) {
+        if (!icfg.hasNode(node)) {
+            // e.g., aliased loads in the methods sliced away from the ICFG
+            return;
+        }
+        if (calleeSummaries != null) {
+            Method method = icfg.getContainingMethodOf(node);
+            List<Node> nodes = calleeSummaries.exclude(method);
+            if (!nodes.isEmpty()) {
+                // the method is solved as usual from now on
+                workList.addAll(nodes);
+                icfg.getCallersOf(method).forEach(callSite ->
+                        workList.addAll(icfg.getReturnSitesOf(callSite)));
+            }
+        }
+        workList.offer(node);
+    }
+
+    private boolean isMemoized(Node node) {
+        return calleeSummaries != null &&
+                calleeSummaries.isMemoized(icfg.getContainingMethodOf(node));
+    }
+
+    /**
+     * @return the exit fact of the callee of given return edge, which is
+     * specific to the call site if the callee is memoized.
+     */
+    private Fact getCalleeExitFact(ReturnEdge<Node> returnEdge) {
+        Node exit = returnEdge.getSource();
+        if (!isMemoized(exit)) {
+            return result.getOutFact(exit);
+        }
+        Method callee = icfg.getContainingMethodOf(exit);
+        Node callSite = returnEdge.getCallSite();
+        Fact entryFact = analysis.transferEdge(
+                calleeSummaries.getCallEdge(callSite, callee),
+                result.getOutFact(callSite));
+        return calleeSummaries.getExitFact(callee, entryFact, result);
+    }
 }
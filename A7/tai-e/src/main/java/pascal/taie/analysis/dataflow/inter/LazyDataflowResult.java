@@ -0,0 +1,66 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.inter;
+
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+
+import java.util.function.Supplier;
+
+/**
+ * A {@link DataflowResult} which creates the initial facts of the nodes on
+ * demand, so that the solvers need not initialize the facts of all nodes
+ * up front, and the nodes which are never reached from the entry methods
+ * (e.g., the ones in unreached methods of a lazy ICFG) are not touched
+ * until their facts are queried.
+ *
+ * @param <Node> type of ICFG nodes
+ * @param <Fact> type of data-flow facts
+ */
+class LazyDataflowResult<Node, Fact> extends DataflowResult<Node, Fact> {
+
+    private final Supplier<Fact> initialFactFactory;
+
+    LazyDataflowResult(Supplier<Fact> initialFactFactory) {
+        this.initialFactFactory = initialFactFactory;
+    }
+
+    @Override
+    public Fact getInFact(Node node) {
+        Fact fact = super.getInFact(node);
+        if (fact == null) {
+            fact = initialFactFactory.get();
+            setInFact(node, fact);
+        }
+        return fact;
+    }
+
+    @Override
+    public Fact getOutFact(Node node) {
+        Fact fact = super.getOutFact(node);
+        if (fact == null) {
+            fact = initialFactFactory.get();
+            setOutFact(node, fact);
+        }
+        return fact;
+    }
+}
@@ -0,0 +1,220 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.inter;
+
+import pascal.taie.analysis.graph.icfg.ICFG;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.SetQueue;
+import pascal.taie.util.collection.Sets;
+import pascal.taie.util.graph.MergedNode;
+import pascal.taie.util.graph.MergedSCCGraph;
+import pascal.taie.util.graph.SimpleGraph;
+import pascal.taie.util.graph.TopoSorter;
+
+import java.util.AbstractQueue;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+
+/**
+ * Work list of {@link InterSolver}, which schedules the ICFG nodes by
+ * their containing methods.
+ * <p>
+ * The methods are grouped by the strongly connected components (SCCs) of
+ * the call graph, and the SCCs are ordered topologically, callers first.
+ * The work list always polls a node of the first SCC which has pending
+ * nodes, thus the nodes of a method (or a recursive SCC) are iterated to
+ * a local fixpoint before the analysis moves on to its callees, and it
+ * returns to the callers only when some facts flow back to them.
+ * Within each SCC, the nodes are polled in FIFO order.
+ * <p>
+ * A node is kept at most once in the work list, i.e., offering a node
+ * which is already pending has no effect. The numbers of pushes, suppressed
+ * duplicate pushes and pops are counted, and logged by the solver.
+ *
+ * @param <Method> type of methods
+ * @param <Node>   type of ICFG nodes
+ */
+class MethodOrderedWorkList<Method, Node> extends AbstractQueue<Node> {
+
+    private final ICFG<Method, Node> icfg;
+
+    /**
+     * Maps each method to the topological order of its SCC.
+     */
+    private final Map<Method, Integer> ranks;
+
+    /**
+     * Pending nodes of each SCC, indexed by the ranks.
+     */
+    private final List<Queue<Node>> buckets;
+
+    /**
+     * All buckets before this index are empty.
+     */
+    private int first;
+
+    private int size;
+
+    private long pushes;
+
+    private long duplicates;
+
+    private long pops;
+
+    MethodOrderedWorkList(ICFG<Method, Node> icfg) {
+        this.icfg = icfg;
+        SimpleGraph<Method> callGraph = buildCallGraph(icfg);
+        List<MergedNode<Method>> sccs = new TopoSorter<>(
+                new MergedSCCGraph<>(callGraph)).get();
+        this.ranks = Maps.newMap(callGraph.getNumberOfNodes());
+        this.buckets = new ArrayList<>(sccs.size());
+        for (MergedNode<Method> scc : sccs) {
+            int rank = buckets.size();
+            scc.getNodes().forEach(m -> ranks.put(m, rank));
+            buckets.add(new SetQueue<>());
+        }
+    }
+
+    /**
+     * Builds the call graph among the methods in the ICFG by traversing
+     * the call sites from the entry methods, without visiting the other
+     * nodes of the ICFG.
+     */
+    private static <Method, Node> SimpleGraph<Method> buildCallGraph(
+            ICFG<Method, Node> icfg) {
+        SimpleGraph<Method> callGraph = new SimpleGraph<>();
+        Queue<Method> workList = new SetQueue<>();
+        icfg.entryMethods().forEach(workList::add);
+        Set<Method> visited = Sets.newSet();
+        while (!workList.isEmpty()) {
+            Method method = workList.poll();
+            if (visited.add(method)) {
+                callGraph.addNode(method);
+                for (Node callSite : icfg.getCallSitesIn(method)) {
+                    for (Method callee : icfg.getCalleesOf(callSite)) {
+                        callGraph.addEdge(method, callee);
+                        workList.add(callee);
+                    }
+                }
+            }
+        }
+        return callGraph;
+    }
+
+    /**
+     * Adds given node to this work list if it is not pending.
+     *
+     * @return true if this work list changed as a result of the call.
+     */
+    @Override
+    public boolean add(Node node) {
+        return offer(node);
+    }
+
+    /**
+     * Adds given node to this work list if it is not pending.
+     *
+     * @return true if this work list changed as a result of the call.
+     */
+    @Override
+    public boolean offer(Node node) {
+        ++pushes;
+        int rank = ranks.get(icfg.getContainingMethodOf(node));
+        if (buckets.get(rank).add(node)) {
+            first = Math.min(first, rank);
+            ++size;
+            return true;
+        } else {
+            ++duplicates;
+            return false;
+        }
+    }
+
+    @Override
+    public Node poll() {
+        if (size == 0) {
+            return null;
+        }
+        while (buckets.get(first).isEmpty()) {
+            ++first;
+        }
+        --size;
+        ++pops;
+        return buckets.get(first).poll();
+    }
+
+    @Override
+    public Node peek() {
+        if (size == 0) {
+            return null;
+        }
+        while (buckets.get(first).isEmpty()) {
+            ++first;
+        }
+        return buckets.get(first).peek();
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return an iterator over the pending nodes, in the order they would
+     * be polled if no nodes were added. The iterator does not support
+     * {@link Iterator#remove()}, thus neither do the bulk removal methods,
+     * e.g., {@link #removeAll(java.util.Collection)}.
+     */
+    @Override
+    public Iterator<Node> iterator() {
+        return buckets.stream()
+                .flatMap(Queue::stream)
+                .iterator();
+    }
+
+    /**
+     * @return the number of nodes offered to this work list.
+     */
+    long getPushes() {
+        return pushes;
+    }
+
+    /**
+     * @return the number of nodes which were offered to this work list
+     * when they were pending, i.e., the suppressed duplicate pushes.
+     */
+    long getDuplicates() {
+        return duplicates;
+    }
+
+    /**
+     * @return the number of nodes polled from this work list.
+     */
+    long getPops() {
+        return pops;
+    }
+}
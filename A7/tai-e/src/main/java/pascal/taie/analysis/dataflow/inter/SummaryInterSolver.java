@@ -0,0 +1,289 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.inter;
+
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.icfg.CallEdge;
+import pascal.taie.analysis.graph.icfg.ICFG;
+import pascal.taie.analysis.graph.icfg.ICFGEdge;
+import pascal.taie.analysis.graph.icfg.ReturnEdge;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.SetQueue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+
+/**
+ * Summary-based solver for inter-procedural data-flow analysis,
+ * in the style of the tabulation algorithm of IFDS/IDE.
+ * <p>
+ * Each method is analyzed separately for each distinct fact flowing
+ * into its entry (a context), and the fact flowing out of its exit is
+ * recorded as the summary of the method for the entry fact. A call site
+ * obtains the fact of its return site by applying the summaries of its
+ * callees to the facts passed via call edges, so a callee is analyzed only
+ * once for all call sites which pass the same entry fact to it. When a
+ * summary changes, the return sites which applied it are analyzed again.
+ * <p>
+ * To ensure termination, e.g., for recursive methods whose arguments keep
+ * changing, each method has at most {@link #CONTEXT_LIMIT} contexts with
+ * distinct entry facts; the further entry facts are met into one shared
+ * context of the method.
+ * <p>
+ * The result of the solver is the meet of the facts of all contexts.
+ * As the facts of different contexts are not mixed inside the methods,
+ * the result can be more precise than the one of {@link InterSolver}.
+ * Unlike {@link InterSolver}, the nodes are kept in the work lists of
+ * the contexts, thus there is no global work list.
+ */
+class SummaryInterSolver<Method, Node, Fact>
+        implements InterDataflowSolver<Node, Fact> {
+
+    /**
+     * Maximum number of contexts with distinct entry facts for each method.
+     */
+    private static final int CONTEXT_LIMIT = 16;
+
+    private final InterDataflowAnalysis<Node, Fact> analysis;
+
+    private final ICFG<Method, Node> icfg;
+
+    private DataflowResult<Node, Fact> result;
+
+    /**
+     * Contexts of each method.
+     */
+    private final Map<Method, Contexts> contexts = Maps.newMap();
+
+    /**
+     * Contexts which have pending nodes.
+     */
+    private final Queue<Context> workList = new SetQueue<>();
+
+    SummaryInterSolver(InterDataflowAnalysis<Node, Fact> analysis,
+                       ICFG<Method, Node> icfg) {
+        this.analysis = analysis;
+        this.icfg = icfg;
+    }
+
+    @Override
+    public DataflowResult<Node, Fact> solve() {
+        result = new LazyDataflowResult<>(analysis::newInitialFact);
+        icfg.entryMethods().forEach(method -> getContext(method,
+                analysis.newBoundaryFact(icfg.getEntryOf(method))));
+        while (!workList.isEmpty()) {
+            Context context = workList.poll();
+            Node node;
+            while ((node = context.workList.poll()) != null) {
+                analyze(context, node);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public DataflowResult<Node, Fact> getResult() {
+        return result;
+    }
+
+    /**
+     * Adds given node to the work lists of all contexts of its method.
+     */
+    @Override
+    public void addToWorkList(Node node) {
+        if (!icfg.hasNode(node)) {
+            return;
+        }
+        Contexts ctxs = contexts.get(icfg.getContainingMethodOf(node));
+        if (ctxs != null) {
+            ctxs.all.forEach(context -> addToWorkList(context, node));
+        }
+    }
+
+    private void addToWorkList(Context context, Node node) {
+        context.workList.add(node);
+        workList.add(context);
+    }
+
+    /**
+     * @return the context of given method for given entry fact.
+     * If the context does not exist, creates it and adds the entry node
+     * of the method to its work list; the other nodes are reached from
+     * the entry node.
+     */
+    private Context getContext(Method method, Fact entryFact) {
+        Contexts ctxs = contexts.computeIfAbsent(method, m -> new Contexts());
+        Context context = ctxs.byEntryFact.get(entryFact);
+        if (context == null) {
+            if (ctxs.byEntryFact.size() < CONTEXT_LIMIT) {
+                context = new Context(method, entryFact);
+                ctxs.byEntryFact.put(copyOf(entryFact), context);
+                ctxs.all.add(context);
+                addToWorkList(context, icfg.getEntryOf(method));
+            } else {
+                if (ctxs.shared == null) {
+                    ctxs.shared = new Context(method, analysis.newInitialFact());
+                    ctxs.all.add(ctxs.shared);
+                }
+                context = ctxs.shared;
+                analysis.meetInto(entryFact, context.entryFact);
+                addToWorkList(context, icfg.getEntryOf(method));
+            }
+        }
+        return context;
+    }
+
+    /**
+     * @return a copy of given fact, which is used as the key of the
+     * context, so that the key is not affected if the fact is modified.
+     */
+    private Fact copyOf(Fact fact) {
+        Fact copy = analysis.newInitialFact();
+        analysis.meetInto(fact, copy);
+        return copy;
+    }
+
+    private void analyze(Context context, Node node) {
+        Fact in;
+        if (node.equals(icfg.getEntryOf(context.method))) {
+            in = context.entryFact;
+        } else {
+            in = analysis.newInitialFact();
+            for (ICFGEdge<Node> edge : icfg.getInEdgesOf(node)) {
+                if (edge instanceof ReturnEdge<Node> returnEdge) {
+                    Fact exitFact = applySummary(context, returnEdge);
+                    analysis.meetInto(analysis.transferEdge(edge, exitFact), in);
+                } else if (!(edge instanceof CallEdge)) {
+                    Fact predOut = context.facts.getOutFact(edge.getSource());
+                    if (predOut != null) {
+                        analysis.meetInto(analysis.transferEdge(edge, predOut), in);
+                    }
+                }
+            }
+        }
+        context.facts.setInFact(node, in);
+        Fact out = context.facts.getOutFact(node);
+        // successors of a node are reached when it is first analyzed
+        // in the context, even if its OUT fact is unchanged
+        boolean firstVisit = out == null;
+        if (firstVisit) {
+            out = analysis.newInitialFact();
+            context.facts.setOutFact(node, out);
+        }
+        // the analysis may query the result during the transfer,
+        // thus the IN fact is merged into the result before it
+        analysis.meetInto(in, result.getInFact(node));
+        boolean changed = analysis.transferNode(node, in, out) || firstVisit;
+        analysis.meetInto(out, result.getOutFact(node));
+        if (changed) {
+            if (node.equals(icfg.getExitOf(context.method))) {
+                context.callers.forEach(
+                        (caller, retSite) -> addToWorkList(caller, retSite));
+            } else {
+                for (ICFGEdge<Node> edge : icfg.getOutEdgesOf(node)) {
+                    if (!(edge instanceof CallEdge)) {
+                        addToWorkList(context, edge.getTarget());
+                    }
+                }
+                if (icfg.isCallSite(node)) {
+                    icfg.getReturnSitesOf(node)
+                            .forEach(retSite -> addToWorkList(context, retSite));
+                }
+            }
+        }
+    }
+
+    /**
+     * Applies the summary of the callee of given return edge to the fact
+     * passed to the callee from the corresponding call site in given context.
+     *
+     * @return the exit fact of the callee for the call site.
+     */
+    private Fact applySummary(Context context, ReturnEdge<Node> returnEdge) {
+        Node callSite = returnEdge.getCallSite();
+        Fact callSiteOut = context.facts.getOutFact(callSite);
+        Node calleeExit = returnEdge.getSource();
+        Method callee = icfg.getContainingMethodOf(calleeExit);
+        Node calleeEntry = icfg.getEntryOf(callee);
+        if (callSiteOut != null) {
+            for (ICFGEdge<Node> edge : icfg.getOutEdgesOf(callSite)) {
+                if (edge instanceof CallEdge && edge.getTarget().equals(calleeEntry)) {
+                    Fact entryFact = analysis.transferEdge(edge, callSiteOut);
+                    Context calleeContext = getContext(callee, entryFact);
+                    calleeContext.callers.put(context, returnEdge.getTarget());
+                    Fact exitFact = calleeContext.facts.getOutFact(calleeExit);
+                    if (exitFact != null) {
+                        return exitFact;
+                    }
+                }
+            }
+        }
+        return analysis.newInitialFact();
+    }
+
+    /**
+     * Contexts of a method.
+     */
+    private class Contexts {
+
+        /**
+         * Contexts keyed by copies of their entry facts.
+         */
+        private final Map<Fact, Context> byEntryFact = Maps.newMap();
+
+        /**
+         * The context shared by the entry facts beyond the limit.
+         */
+        private Context shared;
+
+        private final List<Context> all = new ArrayList<>();
+    }
+
+    /**
+     * A method analyzed with an entry fact.
+     */
+    private class Context {
+
+        private final Method method;
+
+        private final Fact entryFact;
+
+        private final DataflowResult<Node, Fact> facts = new DataflowResult<>();
+
+        private final Queue<Node> workList = new SetQueue<>();
+
+        /**
+         * Return sites (and their contexts) which applied the summary
+         * of this context.
+         */
+        private final MultiMap<Context, Node> callers = Maps.newMultiMap();
+
+        private Context(Method method, Fact entryFact) {
+            this.method = method;
+            this.entryFact = entryFact;
+        }
+    }
+}
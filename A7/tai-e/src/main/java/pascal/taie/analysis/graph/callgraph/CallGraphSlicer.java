@@ -0,0 +1,93 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.callgraph;
+
+import pascal.taie.util.collection.Sets;
+import pascal.taie.util.graph.Graph;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Slices call graphs to the methods which are on some call paths from
+ * the entry methods to given target methods, i.e., the methods which are
+ * reachable from the entry methods and can reach some target methods.
+ */
+public final class CallGraphSlicer {
+
+    private CallGraphSlicer() {
+    }
+
+    /**
+     * @return the nodes of given graph which are on some paths
+     * from {@code sources} to {@code targets}.
+     */
+    public static <N> Set<N> slice(Graph<N> graph,
+                                   Collection<N> sources, Collection<N> targets) {
+        Set<N> forward = traverse(graph, sources, true, n -> true);
+        return traverse(graph, targets, false, forward::contains);
+    }
+
+    /**
+     * Traverses given graph from {@code starts}, forward or backward,
+     * within the nodes which satisfy {@code filter}.
+     *
+     * @return the visited nodes.
+     */
+    private static <N> Set<N> traverse(Graph<N> graph, Collection<N> starts,
+                                       boolean forward, Predicate<N> filter) {
+        Set<N> visited = Sets.newSet();
+        Deque<N> stack = new ArrayDeque<>();
+        for (N start : starts) {
+            if (graph.hasNode(start) && filter.test(start) && visited.add(start)) {
+                stack.push(start);
+            }
+        }
+        while (!stack.isEmpty()) {
+            N node = stack.pop();
+            for (N next : forward ? graph.getSuccsOf(node) : graph.getPredsOf(node)) {
+                if (filter.test(next) && visited.add(next)) {
+                    stack.push(next);
+                }
+            }
+        }
+        return visited;
+    }
+
+    /**
+     * @return the call graph which has the methods on some call paths from
+     * the entry methods of given call graph to {@code targets}, and the
+     * call edges among these methods. The call sites in these methods are
+     * kept even if their callees are sliced away, and such call sites are
+     * marked as pruned, see {@link SlicedCallGraph#isPruned(Object)}.
+     */
+    public static <CallSite, Method> SlicedCallGraph<CallSite, Method> slice(
+            CallGraph<CallSite, Method> callGraph, Collection<Method> targets) {
+        Set<Method> methods = slice(callGraph,
+                callGraph.entryMethods().toList(), targets);
+        return new SlicedCallGraph<>(callGraph, methods);
+    }
+}
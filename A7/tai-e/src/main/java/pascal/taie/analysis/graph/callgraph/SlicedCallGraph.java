@@ -0,0 +1,99 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.callgraph;
+
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.util.collection.Sets;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Call graph which consists of a subset of the methods of another call
+ * graph, and the call edges among these methods.
+ * <p>
+ * All call sites in the kept methods are kept. A call site is
+ * <i>pruned</i> if some of its callees are not kept, i.e., the effects of
+ * some calls at the call site are absent from this call graph, and the
+ * clients should treat such call sites as calls to unknown methods.
+ *
+ * @param <CallSite> type of call sites
+ * @param <Method>   type of methods
+ */
+public class SlicedCallGraph<CallSite, Method>
+        extends AbstractCallGraph<CallSite, Method> {
+
+    private final CallGraph<CallSite, Method> callGraph;
+
+    private final Set<CallSite> prunedCallSites = Sets.newSet();
+
+    SlicedCallGraph(CallGraph<CallSite, Method> callGraph, Set<Method> methods) {
+        this.callGraph = callGraph;
+        callGraph.entryMethods()
+                .filter(methods::contains)
+                .forEach(entryMethods::add);
+        for (Method method : methods) {
+            reachableMethods.add(method);
+            for (CallSite callSite : callGraph.getCallSitesIn(method)) {
+                callSiteToContainer.put(callSite, method);
+                callSitesIn.put(method, callSite);
+                callGraph.edgesOutOf(callSite).forEach(edge -> {
+                    if (methods.contains(edge.getCallee())) {
+                        callSiteToEdges.put(callSite, edge);
+                        calleeToEdges.put(edge.getCallee(), edge);
+                    } else {
+                        prunedCallSites.add(callSite);
+                    }
+                });
+            }
+        }
+    }
+
+    /**
+     * @return true if some callees of given call site are sliced away.
+     */
+    public boolean isPruned(CallSite callSite) {
+        return prunedCallSites.contains(callSite);
+    }
+
+    /**
+     * @return unmodifiable set of the pruned call sites.
+     */
+    public Set<CallSite> getPrunedCallSites() {
+        return Collections.unmodifiableSet(prunedCallSites);
+    }
+
+    @Override
+    public boolean isRelevant(Stmt stmt) {
+        return callGraph.isRelevant(stmt);
+    }
+
+    @Override
+    public Set<Method> getResult(Stmt stmt) {
+        return callGraph.getResult(stmt)
+                .stream()
+                .filter(reachableMethods::contains)
+                .collect(Collectors.toUnmodifiableSet());
+    }
+}
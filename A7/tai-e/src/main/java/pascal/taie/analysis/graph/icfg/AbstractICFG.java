@@ -0,0 +1,64 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.icfg;
+
+import pascal.taie.analysis.graph.callgraph.CallGraph;
+import pascal.taie.analysis.graph.callgraph.SlicedCallGraph;
+
+import java.util.Set;
+import java.util.stream.Stream;
+
+abstract class AbstractICFG<Method, Node> implements ICFG<Method, Node> {
+
+    protected final CallGraph<Node, Method> callGraph;
+
+    protected AbstractICFG(CallGraph<Node, Method> callGraph) {
+        this.callGraph = callGraph;
+    }
+
+    @Override
+    public Stream<Method> entryMethods() {
+        return callGraph.entryMethods();
+    }
+
+    @Override
+    public Set<Method> getCalleesOf(Node callSite) {
+        return callGraph.getCalleesOf(callSite);
+    }
+
+    @Override
+    public Set<Node> getCallersOf(Method method) {
+        return callGraph.getCallersOf(method);
+    }
+
+    @Override
+    public Set<Node> getCallSitesIn(Method method) {
+        return callGraph.getCallSitesIn(method);
+    }
+
+    @Override
+    public boolean isPrunedCallSite(Node callSite) {
+        return callGraph instanceof SlicedCallGraph<Node, Method> slice &&
+                slice.isPruned(callSite);
+    }
+}
@@ -74,6 +74,11 @@ public interface ICFG<Method, Node> extends Graph<Node> {
      */
     Set<Node> getCallersOf(Method method);
 
+    /**
+     * @return the call sites in the given method.
+     */
+    Set<Node> getCallSitesIn(Method method);
+
     /**
      * @return the method that contains the given node.
      */
@@ -83,4 +88,11 @@ public interface ICFG<Method, Node> extends Graph<Node> {
      * @return true if the given node is a call site, otherwise false.
      */
     boolean isCallSite(Node node);
+
+    /**
+     * @return true if some callees of the given call site are sliced away
+     * from this ICFG, i.e., the call site lacks the call and return edges
+     * to these callees, otherwise false.
+     */
+    boolean isPrunedCallSite(Node callSite);
 }
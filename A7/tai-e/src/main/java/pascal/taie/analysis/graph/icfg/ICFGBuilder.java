@@ -0,0 +1,163 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.icfg;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.World;
+import pascal.taie.analysis.ProgramAnalysis;
+import pascal.taie.analysis.graph.callgraph.CallGraph;
+import pascal.taie.analysis.graph.callgraph.CallGraphBuilder;
+import pascal.taie.analysis.graph.callgraph.CallGraphSlicer;
+import pascal.taie.analysis.graph.callgraph.SlicedCallGraph;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.analysis.graph.cfg.CFGDumper;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.config.ConfigException;
+import pascal.taie.config.Configs;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.IDProvider;
+import pascal.taie.util.MapIDProvider;
+import pascal.taie.util.graph.DotDumper;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+public class ICFGBuilder extends ProgramAnalysis {
+
+    public static final String ID = "icfg";
+
+    private static final Logger logger = LogManager.getLogger(ICFGBuilder.class);
+
+    private final boolean isDump;
+
+    private final boolean isLazy;
+
+    /**
+     * Signatures of the methods to which the ICFG is sliced,
+     * or null if the ICFG is not sliced.
+     */
+    private final List<String> sliceTargets;
+
+    public ICFGBuilder(AnalysisConfig config) {
+        super(config);
+        isDump = getOptions().getBoolean("dump");
+        isLazy = getOptions().getBooleanOrDefault("lazy", false);
+        sliceTargets = getSliceTargets();
+    }
+
+    private List<String> getSliceTargets() {
+        Object targets = getOptions().get("slice-targets");
+        if (targets == null) {
+            return null;
+        } else if (targets instanceof String target) {
+            return List.of(target);
+        } else if (targets instanceof List<?> list) {
+            return list.stream().map(Object::toString).toList();
+        } else {
+            throw new ConfigException("Invalid slice-targets: " + targets);
+        }
+    }
+
+    @Override
+    public ICFG<JMethod, Stmt> analyze() {
+        CallGraph<Stmt, JMethod> callGraph = World.get().getResult(CallGraphBuilder.ID);
+        if (sliceTargets != null) {
+            callGraph = slice(callGraph);
+        }
+        ICFG<JMethod, Stmt> icfg = isLazy ?
+                new LazyICFG(callGraph) : new DefaultICFG(callGraph);
+        if (isDump) {
+            dumpICFG(icfg);
+        }
+        return icfg;
+    }
+
+    /**
+     * Slices given call graph to the methods on some call paths from the
+     * entry methods to the methods of {@link #sliceTargets}. The call sites
+     * whose callees are sliced away are reported by
+     * {@link ICFG#isPrunedCallSite(Object)}, and the analyses on the ICFG
+     * should treat them as calls to unknown methods.
+     */
+    private CallGraph<Stmt, JMethod> slice(CallGraph<Stmt, JMethod> callGraph) {
+        ClassHierarchy hierarchy = World.get().getClassHierarchy();
+        List<JMethod> targets = new ArrayList<>();
+        for (String signature : sliceTargets) {
+            JMethod target = hierarchy.getMethod(signature);
+            if (target == null) {
+                logger.warn("Slice target {} is not found", signature);
+            } else {
+                targets.add(target);
+            }
+        }
+        SlicedCallGraph<Stmt, JMethod> slice = CallGraphSlicer.slice(callGraph, targets);
+        logger.info("Sliced call graph to {} of {} reachable methods, {} pruned call sites",
+                slice.getNumberOfMethods(), callGraph.getNumberOfMethods(),
+                slice.getPrunedCallSites().size());
+        return slice;
+    }
+
+    private static void dumpICFG(ICFG<JMethod, Stmt> icfg) {
+        String fileName = icfg.entryMethods()
+                .map(m -> m.getDeclaringClass() + "." + m.getName())
+                .collect(Collectors.joining("-"));
+        File dotFile = new File(Configs.getOutputDir(), fileName + "-icfg.dot");
+        String dotPath = dotFile.toString();
+        logger.info("Dumping ICFG to {} ...", dotPath);
+        IDProvider<Stmt> provider = new MapIDProvider<>();
+        new DotDumper<Stmt>()
+                .setNodeToString(n -> Integer.toString(provider.getID(n)))
+                .setNodeLabeler(n -> toLabel(n, icfg))
+                .setGlobalNodeAttributes(Map.of("shape", "box",
+                        "style", "filled", "color", "\".3 .2 1.0\""))
+                .setEdgeAttrs(e -> {
+                    if (e instanceof CallEdge) {
+                        return Map.of("style", "dashed", "color", "blue");
+                    } else if (e instanceof ReturnEdge) {
+                        return Map.of("style", "dashed", "color", "red");
+                    } else if (e instanceof CallToReturnEdge) {
+                        return Map.of("style", "dashed");
+                    } else {
+                        return Map.of();
+                    }
+                })
+                .dump(icfg, dotPath);
+    }
+
+    private static String toLabel(Stmt stmt, ICFG<JMethod, Stmt> icfg) {
+        JMethod method = icfg.getContainingMethodOf(stmt);
+        CFG<Stmt> cfg = getCFGOf(method);
+        return CFGDumper.toLabel(stmt, cfg);
+    }
+
+    static CFG<Stmt> getCFGOf(JMethod method) {
+        return method.getIR().getResult(CFGBuilder.ID);
+    }
+}
@@ -0,0 +1,397 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.icfg;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.analysis.graph.callgraph.CallGraph;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.Edge;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.Return;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.ClassType;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
+import pascal.taie.util.collection.Views;
+
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * ICFG which builds the edges of each method on demand.
+ * <p>
+ * Unlike {@link DefaultICFG}, which builds all edges of all reachable
+ * methods up front and keeps a set of in/out edges for every node, this
+ * ICFG builds the edges of a method (intra-procedural edges, as well as the
+ * call/return edges connecting the method to its callers and callees) when
+ * the edges of one of its nodes are first queried, e.g., when a solver
+ * first analyzes the method. The edges of each method are stored in
+ * compressed sparse row (CSR) form, i.e., an array of edges and, for each
+ * direction, an int array of edge indexes grouped by nodes plus an int
+ * array of offsets, and the edge sets are returned as views of the arrays.
+ * <p>
+ * The nodes of a method are also registered (for
+ * {@link #getContainingMethodOf(Stmt)} etc.) when the method is first
+ * reached, i.e., when its entry or exit node is queried, or when the edges
+ * connecting it to its callers or callees are built. Thus a solver which
+ * starts from the entry methods and follows the edges only touches the
+ * methods it reaches. Querying {@link #getNodes()}, or a node of a method
+ * which is not reached yet, registers the nodes of all methods.
+ */
+class LazyICFG extends AbstractICFG<JMethod, Stmt> {
+
+    private static final Logger logger = LogManager.getLogger(LazyICFG.class);
+
+    private final Map<Stmt, CFG<Stmt>> stmtToCFG = Maps.newMap();
+
+    private final Map<JMethod, MethodEdges> methodEdges = Maps.newMap();
+
+    /**
+     * Methods whose nodes have been registered in {@link #stmtToCFG}.
+     */
+    private final Set<JMethod> registered = Sets.newSet();
+
+    private boolean allRegistered = false;
+
+    LazyICFG(CallGraph<Stmt, JMethod> callGraph) {
+        super(callGraph);
+    }
+
+    /**
+     * Registers the nodes of given method if they are not registered yet.
+     *
+     * @return the CFG of the method, or null if it is absent.
+     */
+    private CFG<Stmt> register(JMethod method) {
+        CFG<Stmt> cfg = ICFGBuilder.getCFGOf(method);
+        if (registered.add(method)) {
+            if (cfg == null) {
+                logger.warn("CFG of {} is absent, try to fix this" +
+                        " by adding option -scope=reachable", method);
+            } else {
+                cfg.forEach(stmt -> stmtToCFG.put(stmt, cfg));
+            }
+        }
+        return cfg;
+    }
+
+    private void registerAll() {
+        if (!allRegistered) {
+            callGraph.forEach(this::register);
+            allRegistered = true;
+        }
+    }
+
+    /**
+     * @return the CFG containing given node, or null if the node
+     * is not in this ICFG.
+     */
+    private CFG<Stmt> getCFGOf(Stmt stmt) {
+        CFG<Stmt> cfg = stmtToCFG.get(stmt);
+        if (cfg == null && !allRegistered) {
+            registerAll();
+            cfg = stmtToCFG.get(stmt);
+        }
+        return cfg;
+    }
+
+    @Override
+    public Set<ICFGEdge<Stmt>> getInEdgesOf(Stmt stmt) {
+        CFG<Stmt> cfg = getCFGOf(stmt);
+        return cfg != null ? getEdgesOf(cfg).getInEdgesOf(stmt) : Set.of();
+    }
+
+    @Override
+    public Set<ICFGEdge<Stmt>> getOutEdgesOf(Stmt stmt) {
+        CFG<Stmt> cfg = getCFGOf(stmt);
+        return cfg != null ? getEdgesOf(cfg).getOutEdgesOf(stmt) : Set.of();
+    }
+
+    private MethodEdges getEdgesOf(CFG<Stmt> cfg) {
+        return methodEdges.computeIfAbsent(cfg.getMethod(),
+                m -> new MethodEdges(cfg));
+    }
+
+    @Override
+    public Stmt getEntryOf(JMethod method) {
+        return register(method).getEntry();
+    }
+
+    @Override
+    public Stmt getExitOf(JMethod method) {
+        return register(method).getExit();
+    }
+
+    @Override
+    public Set<Stmt> getReturnSitesOf(Stmt callSite) {
+        assert isCallSite(callSite);
+        return getCFGOf(callSite).getSuccsOf(callSite);
+    }
+
+    @Override
+    public JMethod getContainingMethodOf(Stmt stmt) {
+        return getCFGOf(stmt).getMethod();
+    }
+
+    @Override
+    public boolean isCallSite(Stmt stmt) {
+        return stmt instanceof Invoke;
+    }
+
+    @Override
+    public boolean hasNode(Stmt stmt) {
+        return getCFGOf(stmt) != null;
+    }
+
+    @Override
+    public boolean hasEdge(Stmt source, Stmt target) {
+        return getOutEdgesOf(source)
+                .stream()
+                .anyMatch(edge -> edge.getTarget().equals(target));
+    }
+
+    @Override
+    public Set<Stmt> getPredsOf(Stmt stmt) {
+        return Views.toMappedSet(getInEdgesOf(stmt), ICFGEdge::getSource);
+    }
+
+    @Override
+    public Set<Stmt> getSuccsOf(Stmt stmt) {
+        return Views.toMappedSet(getOutEdgesOf(stmt), ICFGEdge::getTarget);
+    }
+
+    @Override
+    public Set<Stmt> getNodes() {
+        registerAll();
+        return Collections.unmodifiableSet(stmtToCFG.keySet());
+    }
+
+    /**
+     * Edges of the nodes of a method in CSR form.
+     */
+    private class MethodEdges {
+
+        private final CFG<Stmt> cfg;
+
+        /**
+         * Number of statements in the IR, which is the local index of the
+         * entry node; the local index of the exit node is this number + 1.
+         */
+        private final int nStmts;
+
+        private final ICFGEdge<Stmt>[] edges;
+
+        /**
+         * The out edges of the node of local index i are
+         * {@code edges[outEdges[outOffsets[i]..outOffsets[i + 1]]]}.
+         */
+        private final int[] outOffsets;
+
+        private final int[] outEdges;
+
+        /**
+         * The in edges of the node of local index i are
+         * {@code edges[inEdges[inOffsets[i]..inOffsets[i + 1]]]}.
+         */
+        private final int[] inOffsets;
+
+        private final int[] inEdges;
+
+        private MethodEdges(CFG<Stmt> cfg) {
+            this.cfg = cfg;
+            this.nStmts = cfg.getIR().getStmts().size();
+            this.edges = toArray(collectEdges(cfg));
+            int nNodes = nStmts + 2;
+            this.outOffsets = new int[nNodes + 1];
+            this.inOffsets = new int[nNodes + 1];
+            for (ICFGEdge<Stmt> edge : edges) {
+                if (cfg == stmtToCFG.get(edge.getSource())) {
+                    ++outOffsets[indexOf(edge.getSource()) + 1];
+                }
+                if (cfg == stmtToCFG.get(edge.getTarget())) {
+                    ++inOffsets[indexOf(edge.getTarget()) + 1];
+                }
+            }
+            for (int i = 0; i < nNodes; ++i) {
+                outOffsets[i + 1] += outOffsets[i];
+                inOffsets[i + 1] += inOffsets[i];
+            }
+            this.outEdges = new int[outOffsets[nNodes]];
+            this.inEdges = new int[inOffsets[nNodes]];
+            int[] outNext = outOffsets.clone();
+            int[] inNext = inOffsets.clone();
+            for (int e = 0; e < edges.length; ++e) {
+                ICFGEdge<Stmt> edge = edges[e];
+                if (cfg == stmtToCFG.get(edge.getSource())) {
+                    outEdges[outNext[indexOf(edge.getSource())]++] = e;
+                }
+                if (cfg == stmtToCFG.get(edge.getTarget())) {
+                    inEdges[inNext[indexOf(edge.getTarget())]++] = e;
+                }
+            }
+        }
+
+        /**
+         * @return the local index of given node of the method.
+         */
+        private int indexOf(Stmt stmt) {
+            if (cfg.isEntry(stmt)) {
+                return nStmts;
+            } else if (cfg.isExit(stmt)) {
+                return nStmts + 1;
+            } else {
+                return stmt.getIndex();
+            }
+        }
+
+        private Set<ICFGEdge<Stmt>> getOutEdgesOf(Stmt stmt) {
+            int i = indexOf(stmt);
+            return new EdgeSet(edges, outEdges, outOffsets[i], outOffsets[i + 1]);
+        }
+
+        private Set<ICFGEdge<Stmt>> getInEdgesOf(Stmt stmt) {
+            int i = indexOf(stmt);
+            return new EdgeSet(edges, inEdges, inOffsets[i], inOffsets[i + 1]);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ICFGEdge<Stmt>[] toArray(List<ICFGEdge<Stmt>> edges) {
+        return (ICFGEdge<Stmt>[]) edges.toArray(new ICFGEdge<?>[0]);
+    }
+
+    /**
+     * Collects the edges whose sources or targets are in the method of
+     * given CFG. Each edge is collected once.
+     */
+    private List<ICFGEdge<Stmt>> collectEdges(CFG<Stmt> cfg) {
+        List<ICFGEdge<Stmt>> edges = new ArrayList<>();
+        JMethod method = cfg.getMethod();
+        for (Stmt stmt : cfg) {
+            cfg.getOutEdgesOf(stmt).forEach(edge -> edges.add(
+                    isCallSite(stmt) ?
+                            new CallToReturnEdge<>(edge) :
+                            new NormalEdge<>(edge)));
+            if (isCallSite(stmt)) {
+                for (JMethod callee : getCalleesOf(stmt)) {
+                    CFG<Stmt> calleeCFG = register(callee);
+                    if (calleeCFG == null) {
+                        logger.warn("CFG of {} is missing", callee);
+                        continue;
+                    }
+                    addCallAndReturnEdges(edges, cfg, stmt, calleeCFG);
+                }
+            }
+        }
+        for (Stmt callSite : getCallersOf(method)) {
+            CFG<Stmt> callerCFG = register(callGraph.getContainerOf(callSite));
+            // edges of recursive calls have been added above
+            if (callerCFG != null && callerCFG != cfg) {
+                addCallAndReturnEdges(edges, callerCFG, callSite, cfg);
+            }
+        }
+        return edges;
+    }
+
+    private void addCallAndReturnEdges(
+            List<ICFGEdge<Stmt>> edges, CFG<Stmt> callerCFG,
+            Stmt callSite, CFG<Stmt> calleeCFG) {
+        JMethod callee = calleeCFG.getMethod();
+        edges.add(new CallEdge<>(callSite, calleeCFG.getEntry(), callee));
+        Stmt exit = calleeCFG.getExit();
+        Set<Var> retVars = Sets.newHybridSet();
+        Set<ClassType> exceptions = Sets.newHybridSet();
+        // collect return variables and exceptions
+        for (Edge<Stmt> edge : calleeCFG.getInEdgesOf(exit)) {
+            if (edge.getKind() == Edge.Kind.RETURN) {
+                Var retVar = ((Return) edge.getSource()).getValue();
+                if (retVar != null) {
+                    retVars.add(retVar);
+                }
+            }
+            if (edge.isExceptional()) {
+                exceptions.addAll(edge.getExceptions());
+            }
+        }
+        for (Stmt retSite : callerCFG.getSuccsOf(callSite)) {
+            edges.add(new ReturnEdge<>(exit, retSite, callSite,
+                    retVars, exceptions));
+        }
+    }
+
+    /**
+     * Read-only set view of a range of edge indexes.
+     */
+    private static class EdgeSet extends AbstractSet<ICFGEdge<Stmt>> {
+
+        private final ICFGEdge<Stmt>[] edges;
+
+        private final int[] indexes;
+
+        private final int from;
+
+        private final int to;
+
+        private EdgeSet(ICFGEdge<Stmt>[] edges, int[] indexes, int from, int to) {
+            this.edges = edges;
+            this.indexes = indexes;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public Iterator<ICFGEdge<Stmt>> iterator() {
+            return new Iterator<>() {
+
+                private int next = from;
+
+                @Override
+                public boolean hasNext() {
+                    return next < to;
+                }
+
+                @Override
+                public ICFGEdge<Stmt> next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    return edges[indexes[next++]];
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return to - from;
+        }
+    }
+}
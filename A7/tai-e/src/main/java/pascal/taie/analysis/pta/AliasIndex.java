@@ -0,0 +1,169 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta;
+
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.LoadArray;
+import pascal.taie.ir.stmt.LoadField;
+import pascal.taie.ir.stmt.StoreArray;
+import pascal.taie.ir.stmt.StoreField;
+import pascal.taie.language.classes.JField;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Sets;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Index of the instance field and array accesses whose base variables
+ * are aliases according to a pointer analysis result.
+ * <p>
+ * Two variables are aliases if their points-to sets intersect.
+ * Instead of comparing the points-to sets of all pairs of variables,
+ * this index inverts the points-to relation, i.e., it maps each object
+ * to the accesses whose base variables point to the object, which costs
+ * linear time in the total size of the points-to sets. The accesses
+ * aliased with a base variable are then collected from the objects
+ * pointed to by the variable, on demand, and cached.
+ */
+public class AliasIndex {
+
+    private final PointerAnalysisResult pta;
+
+    private final Map<Obj, MultiMap<JField, StoreField>> objStoreFields = Maps.newMap();
+
+    private final Map<Obj, MultiMap<JField, LoadField>> objLoadFields = Maps.newMap();
+
+    private final MultiMap<Obj, StoreArray> objStoreArrays = Maps.newMultiMap();
+
+    private final MultiMap<Obj, LoadArray> objLoadArrays = Maps.newMultiMap();
+
+    private final Map<Var, MultiMap<JField, StoreField>> storeFields = Maps.newMap();
+
+    private final Map<Var, MultiMap<JField, LoadField>> loadFields = Maps.newMap();
+
+    private final Map<Var, Set<StoreArray>> storeArrays = Maps.newMap();
+
+    private final Map<Var, Set<LoadArray>> loadArrays = Maps.newMap();
+
+    public AliasIndex(PointerAnalysisResult pta) {
+        this.pta = pta;
+        for (Var var : pta.getVars()) {
+            Set<Obj> pts = pta.getPointsToSet(var);
+            if (pts.isEmpty()) {
+                continue;
+            }
+            for (StoreField store : var.getStoreFields()) {
+                JField field = store.getFieldRef().resolve();
+                pts.forEach(obj -> objStoreFields
+                        .computeIfAbsent(obj, o -> Maps.newMultiMap())
+                        .put(field, store));
+            }
+            for (LoadField load : var.getLoadFields()) {
+                JField field = load.getFieldRef().resolve();
+                pts.forEach(obj -> objLoadFields
+                        .computeIfAbsent(obj, o -> Maps.newMultiMap())
+                        .put(field, load));
+            }
+            for (Obj obj : pts) {
+                objStoreArrays.putAll(obj, var.getStoreArrays());
+                objLoadArrays.putAll(obj, var.getLoadArrays());
+            }
+        }
+    }
+
+    /**
+     * @return the stores to field {@code field} of the objects
+     * which {@code base} may point to.
+     */
+    public Set<StoreField> getStoreFields(Var base, JField field) {
+        return storeFields.computeIfAbsent(base,
+                v -> collectFieldAccesses(v, objStoreFields)).get(field);
+    }
+
+    /**
+     * @return the loads from field {@code field} of the objects
+     * which {@code base} may point to.
+     */
+    public Set<LoadField> getLoadFields(Var base, JField field) {
+        return loadFields.computeIfAbsent(base,
+                v -> collectFieldAccesses(v, objLoadFields)).get(field);
+    }
+
+    /**
+     * @return the stores to the arrays which {@code base} may point to.
+     */
+    public Set<StoreArray> getStoreArrays(Var base) {
+        return storeArrays.computeIfAbsent(base,
+                v -> collectArrayAccesses(v, objStoreArrays::get));
+    }
+
+    /**
+     * @return the loads from the arrays which {@code base} may point to.
+     */
+    public Set<LoadArray> getLoadArrays(Var base) {
+        return loadArrays.computeIfAbsent(base,
+                v -> collectArrayAccesses(v, objLoadArrays::get));
+    }
+
+    /**
+     * @return the loads from field {@code field} whose base variables
+     * may point to {@code obj}.
+     */
+    public Set<LoadField> getLoadFields(Obj obj, JField field) {
+        MultiMap<JField, LoadField> loads = objLoadFields.get(obj);
+        return loads != null ? loads.get(field) : Set.of();
+    }
+
+    /**
+     * @return the loads from array whose base variables
+     * may point to {@code obj}.
+     */
+    public Set<LoadArray> getLoadArrays(Obj obj) {
+        return objLoadArrays.get(obj);
+    }
+
+    private <S> MultiMap<JField, S> collectFieldAccesses(
+            Var base, Map<Obj, MultiMap<JField, S>> objAccesses) {
+        MultiMap<JField, S> result = Maps.newMultiMap();
+        for (Obj obj : pta.getPointsToSet(base)) {
+            MultiMap<JField, S> accesses = objAccesses.get(obj);
+            if (accesses != null) {
+                result.putAll(accesses);
+            }
+        }
+        return result;
+    }
+
+    private <S> Set<S> collectArrayAccesses(
+            Var base, Function<Obj, Set<S>> objAccesses) {
+        Set<S> result = Sets.newHybridSet();
+        for (Obj obj : pta.getPointsToSet(base)) {
+            result.addAll(objAccesses.apply(obj));
+        }
+        return result;
+    }
+}
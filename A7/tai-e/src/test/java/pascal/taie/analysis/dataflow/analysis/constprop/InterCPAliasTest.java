@@ -83,4 +83,59 @@ public class InterCPAliasTest {
     public void testStaticFieldMultiStores() {
         test("StaticFieldMultiStores");
     }
+
+    @Test
+    public void testSummarySolver() {
+        // these programs have no call sites whose callees could be
+        // distinguished by contexts, thus the summary-based solver
+        // gives the same results as the work-list solver
+        for (String inputClass : new String[]{ "InstanceField", "StaticField" }) {
+            Tests.test(inputClass, CLASS_PATH, InterConstantPropagation.ID,
+                    "edge-refine:false;alias-aware:true;pta:cspta;solver:summary",
+                    "-a", "cspta=cs:2-obj", "-a", "cg=algorithm:cspta");
+        }
+    }
+
+    @Test
+    public void testMemoizedCallees() {
+        // capacity 1 makes the cache evict the summary of a callee
+        // whenever another callee (or entry fact) is memoized
+        for (String inputClass : new String[]{ "Interprocedural2", "ArrayInter2" }) {
+            Tests.test(inputClass, CLASS_PATH, InterConstantPropagation.ID,
+                    "edge-refine:false;alias-aware:true;pta:cspta;memo-capacity:1",
+                    "-a", "cspta=cs:2-obj", "-a", "cg=algorithm:cspta");
+        }
+    }
+
+    @Test
+    public void testLazyICFG() {
+        Tests.test("ArrayInter2", CLASS_PATH, InterConstantPropagation.ID,
+                "edge-refine:false;alias-aware:true;pta:cspta",
+                "-a", "cspta=cs:2-obj", "-a", "cg=algorithm:cspta",
+                "-a", "icfg=lazy:true");
+    }
+
+    @Test
+    public void testSliceTargets() {
+        // other() is sliced away, thus the value it returns and the value
+        // it stores to the static field are unknown
+        Tests.test("SliceTargets", CLASS_PATH, InterConstantPropagation.ID,
+                "edge-refine:false;alias-aware:true;pta:cspta",
+                "-a", "cspta=cs:2-obj", "-a", "cg=algorithm:cspta",
+                "-a", "icfg=slice-targets:'<SliceTargets:int target(int)>'");
+    }
+
+    @Test
+    public void testSliceAlias() {
+        // the store in target() is aliased with the load in other(),
+        // which is sliced away, thus the load is not analyzed
+        Tests.test("SliceAlias", CLASS_PATH, InterConstantPropagation.ID,
+                "edge-refine:false;alias-aware:true;pta:cspta",
+                "-a", "cspta=cs:2-obj", "-a", "cg=algorithm:cspta",
+                "-a", "icfg=slice-targets:'<SliceAlias:void target(SliceAlias)>'");
+        Tests.test("SliceAlias", CLASS_PATH, InterConstantPropagation.ID,
+                "edge-refine:false;alias-aware:true;pta:cspta;memo-capacity:8",
+                "-a", "cspta=cs:2-obj", "-a", "cg=algorithm:cspta",
+                "-a", "icfg=slice-targets:'<SliceAlias:void target(SliceAlias)>'");
+    }
 }
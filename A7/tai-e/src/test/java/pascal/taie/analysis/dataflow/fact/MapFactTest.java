@@ -0,0 +1,112 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.fact;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Map;
+
+public class MapFactTest {
+
+    private static MapFact<String, Integer> newFact() {
+        return new MapFact<>(Map.of("a", 1, "b", 2));
+    }
+
+    @Test
+    public void testUpdate() {
+        MapFact<String, Integer> original = newFact();
+        MapFact<String, Integer> copy = original.copy();
+        Assert.assertTrue(copy.update("a", 10));
+        Assert.assertTrue(copy.update("c", 3));
+        Assert.assertFalse(copy.update("b", 2));
+        Assert.assertEquals(newFact(), original);
+        Assert.assertEquals(Integer.valueOf(10), copy.get("a"));
+        Assert.assertEquals(Integer.valueOf(3), copy.get("c"));
+    }
+
+    @Test
+    public void testUpdateOriginal() {
+        MapFact<String, Integer> original = newFact();
+        MapFact<String, Integer> copy = original.copy();
+        Assert.assertTrue(original.update("a", 10));
+        Assert.assertEquals(newFact(), copy);
+        Assert.assertEquals(Integer.valueOf(10), original.get("a"));
+    }
+
+    @Test
+    public void testRemove() {
+        MapFact<String, Integer> original = newFact();
+        MapFact<String, Integer> copy = original.copy();
+        Assert.assertNull(copy.remove("c"));
+        Assert.assertEquals(Integer.valueOf(1), copy.remove("a"));
+        Assert.assertEquals(newFact(), original);
+        Assert.assertNull(copy.get("a"));
+    }
+
+    @Test
+    public void testClear() {
+        MapFact<String, Integer> original = newFact();
+        MapFact<String, Integer> copy = original.copy();
+        copy.clear();
+        Assert.assertEquals(newFact(), original);
+        Assert.assertTrue(copy.keySet().isEmpty());
+        // the cleared copy owns its map now
+        copy.update("a", 10);
+        Assert.assertEquals(newFact(), original);
+    }
+
+    @Test
+    public void testCopyFrom() {
+        MapFact<String, Integer> original = newFact();
+        MapFact<String, Integer> copy = original.copy();
+        MapFact<String, Integer> other = new MapFact<>(Map.of("a", 10, "c", 3));
+        Assert.assertTrue(copy.copyFrom(other));
+        Assert.assertEquals(newFact(), original);
+        Assert.assertEquals(new MapFact<>(Map.of("a", 10, "b", 2, "c", 3)), copy);
+    }
+
+    @Test
+    public void testCopyFromSharedMap() {
+        MapFact<String, Integer> original = newFact();
+        MapFact<String, Integer> copy1 = original.copy();
+        MapFact<String, Integer> copy2 = original.copy();
+        // copying from a fact with the same backing map changes nothing
+        Assert.assertFalse(copy1.copyFrom(original));
+        Assert.assertFalse(copy1.copyFrom(copy2));
+        Assert.assertFalse(original.copyFrom(original));
+        // the facts still share the map, and are separated on modification
+        Assert.assertTrue(copy1.update("a", 10));
+        Assert.assertEquals(newFact(), original);
+        Assert.assertEquals(newFact(), copy2);
+        // copying from a modified sibling modifies only the target
+        Assert.assertTrue(copy2.copyFrom(copy1));
+        Assert.assertEquals(Integer.valueOf(10), copy2.get("a"));
+        Assert.assertEquals(newFact(), original);
+        // copying into the fact which owns the shared map
+        MapFact<String, Integer> copy3 = original.copy();
+        Assert.assertTrue(original.copyFrom(copy1));
+        Assert.assertEquals(newFact(), copy3);
+        Assert.assertEquals(copy1, original);
+    }
+}
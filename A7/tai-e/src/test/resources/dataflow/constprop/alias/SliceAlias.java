@@ -0,0 +1,18 @@
+class SliceAlias {
+
+    int g;
+
+    public static void main(String[] args) {
+        SliceAlias s = new SliceAlias();
+        target(s);
+        int y = other(s);
+    }
+
+    static void target(SliceAlias s) {
+        s.g = 1;
+    }
+
+    static int other(SliceAlias s) {
+        return s.g;
+    }
+}
@@ -0,0 +1,19 @@
+class SliceTargets {
+
+    static int f;
+
+    public static void main(String[] args) {
+        int x = target(1);
+        int y = other();
+        int z = f;
+    }
+
+    static int target(int p) {
+        return p;
+    }
+
+    static int other() {
+        f = 10;
+        return 20;
+    }
+}
@@ -0,0 +1,222 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.callgraph;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.util.Timer;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.graph.Graph;
+import pascal.taie.util.graph.MergedNode;
+import pascal.taie.util.graph.MergedSCCGraph;
+import pascal.taie.util.graph.SimpleGraph;
+import pascal.taie.util.graph.TopoSorter;
+
+import java.util.AbstractSet;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Index of the transitive reachability among the nodes of a graph,
+ * typically the methods of a call graph.
+ * <p>
+ * The graph is condensed into its strongly connected components (SCCs),
+ * which are numbered in topological order, and the transitive closure of
+ * the condensation is computed bit-parallel, i.e., the set of SCCs
+ * reachable from an SCC is a bit set which is the union of the sets of its
+ * successors, computed in reverse topological order. A node reaches another
+ * node iff the SCC of the former reaches the SCC of the latter, thus the
+ * queries take constant time after looking up the SCCs of the nodes.
+ * The index takes {@code O(#SCC^2)} bits in the worst case.
+ * <p>
+ * Reachability is reflexive, i.e., every node reaches itself.
+ * To index a context-sensitive call graph, project it to the methods
+ * by {@link #project(Graph, Function)} first.
+ *
+ * @param <N> type of nodes
+ */
+public class ReachabilityIndex<N> {
+
+    private static final Logger logger = LogManager.getLogger(ReachabilityIndex.class);
+
+    /**
+     * Maps each node to the topological order of its SCC.
+     */
+    private final Map<N, Integer> sccIds;
+
+    /**
+     * Nodes of each SCC, indexed by the ids of SCCs.
+     */
+    private final List<MergedNode<N>> sccs;
+
+    /**
+     * SCCs reachable from each SCC, indexed by the ids of SCCs.
+     */
+    private final BitSet[] closure;
+
+    public ReachabilityIndex(Graph<N> graph) {
+        Timer timer = new Timer("Build reachability index");
+        timer.start();
+        sccs = new TopoSorter<>(new MergedSCCGraph<>(graph)).get();
+        Map<MergedNode<N>, Integer> ids = Maps.newMap(sccs.size());
+        sccIds = Maps.newMap(graph.getNumberOfNodes());
+        for (MergedNode<N> scc : sccs) {
+            int id = ids.size();
+            ids.put(scc, id);
+            scc.getNodes().forEach(n -> sccIds.put(n, id));
+        }
+        // successors of an SCC have greater ids than the SCC,
+        // thus they are computed before it
+        closure = new BitSet[sccs.size()];
+        for (int id = sccs.size() - 1; id >= 0; --id) {
+            BitSet reach = new BitSet();
+            reach.set(id);
+            for (N node : sccs.get(id).getNodes()) {
+                for (N succ : graph.getSuccsOf(node)) {
+                    int succId = sccIds.get(succ);
+                    if (succId != id && !reach.get(succId)) {
+                        reach.or(closure[succId]);
+                    }
+                }
+            }
+            closure[id] = reach;
+        }
+        timer.stop();
+        logger.info("Reachability index: {} nodes, {} SCCs, {} KB, built in {}s",
+                sccIds.size(), sccs.size(), getSizeInBytes() / 1024,
+                timer.inSecond());
+    }
+
+    /**
+     * @return a graph which has the projections of the nodes and edges of
+     * given graph, e.g., the method-level call graph of a context-sensitive
+     * call graph.
+     */
+    public static <M, N> Graph<N> project(Graph<M> graph, Function<M, N> projection) {
+        SimpleGraph<N> result = new SimpleGraph<>();
+        for (M node : graph) {
+            N source = projection.apply(node);
+            result.addNode(source);
+            for (M succ : graph.getSuccsOf(node)) {
+                result.addEdge(source, projection.apply(succ));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return true if {@code target} is reachable from {@code source}.
+     * Nodes which are not in the graph reach nothing.
+     */
+    public boolean reaches(N source, N target) {
+        Integer sourceId = sccIds.get(source);
+        Integer targetId = sccIds.get(target);
+        return sourceId != null && targetId != null &&
+                closure[sourceId].get(targetId);
+    }
+
+    /**
+     * @return unmodifiable view of the nodes reachable from given node.
+     */
+    public Set<N> reachableFrom(N source) {
+        Integer id = sccIds.get(source);
+        return id == null ? Set.of() : new ReachableSet(closure[id]);
+    }
+
+    /**
+     * @return the number of SCCs of the graph.
+     */
+    public int getNumberOfSCCs() {
+        return sccs.size();
+    }
+
+    /**
+     * @return the approximate number of bytes taken by the closure.
+     */
+    public long getSizeInBytes() {
+        long size = 0;
+        for (BitSet reach : closure) {
+            size += reach.size() / 8;
+        }
+        return size;
+    }
+
+    private class ReachableSet extends AbstractSet<N> {
+
+        private final BitSet reach;
+
+        private ReachableSet(BitSet reach) {
+            this.reach = reach;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            Integer id = sccIds.get(o);
+            return id != null && reach.get(id);
+        }
+
+        @Override
+        public Iterator<N> iterator() {
+            return new Iterator<>() {
+
+                private int scc = reach.nextSetBit(0);
+
+                private Iterator<N> nodes = scc >= 0 ?
+                        sccs.get(scc).getNodes().iterator() :
+                        List.<N>of().iterator();
+
+                @Override
+                public boolean hasNext() {
+                    return nodes.hasNext();
+                }
+
+                @Override
+                public N next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    N node = nodes.next();
+                    if (!nodes.hasNext()) {
+                        scc = reach.nextSetBit(scc + 1);
+                        if (scc >= 0) {
+                            nodes = sccs.get(scc).getNodes().iterator();
+                        }
+                    }
+                    return node;
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return reach.stream()
+                    .map(id -> sccs.get(id).getNodes().size())
+                    .sum();
+        }
+    }
+}
@@ -45,6 +45,11 @@ public class CSCallGraph extends AbstractCallGraph<CSCallSite, CSMethod> {
 
     private final CSManager csManager;
 
+    /**
+     * Number of call edges, which is maintained incrementally.
+     */
+    private int nEdges;
+
     public CSCallGraph(CSManager csManager) {
         this.csManager = csManager;
     }
@@ -58,14 +63,16 @@ public class CSCallGraph extends AbstractCallGraph<CSCallSite, CSMethod> {
 
     /**
      * Adds a reachable method to this call graph.
+     * The call sites in the method are collected once here.
      *
      * @return true if this call graph changed as a result of the call,
      * otherwise false.
      */
     public boolean addReachableMethod(CSMethod csMethod) {
         if (reachableMethods.add(csMethod)) {
-            callSitesIn(csMethod).forEach(csCallSite ->
-                    csCallSite.setContainer(csMethod));
+            Set<CSCallSite> callSites = collectCallSites(csMethod);
+            callSites.forEach(csCallSite -> csCallSite.setContainer(csMethod));
+            callSitesIn.putAll(csMethod, callSites);
             return true;
         } else {
             return false;
@@ -82,6 +89,7 @@ public class CSCallGraph extends AbstractCallGraph<CSCallSite, CSMethod> {
     public boolean addEdge(Edge<CSCallSite, CSMethod> edge) {
         if (edge.getCallSite().addEdge(edge)) {
             edge.getCallee().addEdge(edge);
+            ++nEdges;
             return true;
         } else {
             return false;
@@ -105,6 +113,13 @@ public class CSCallGraph extends AbstractCallGraph<CSCallSite, CSMethod> {
 
     @Override
     public Set<CSCallSite> getCallSitesIn(CSMethod csMethod) {
+        if (reachableMethods.contains(csMethod)) {
+            return Collections.unmodifiableSet(callSitesIn.get(csMethod));
+        }
+        return Collections.unmodifiableSet(collectCallSites(csMethod));
+    }
+
+    private Set<CSCallSite> collectCallSites(CSMethod csMethod) {
         JMethod method = csMethod.getMethod();
         Context context = csMethod.getContext();
         Set<CSCallSite> callSites = Sets.newHybridOrderedSet();
@@ -114,7 +129,7 @@ public class CSCallGraph extends AbstractCallGraph<CSCallSite, CSMethod> {
                 callSites.add(csCallSite);
             }
         }
-        return Collections.unmodifiableSet(callSites);
+        return callSites;
     }
 
     @Override
@@ -134,6 +149,11 @@ public class CSCallGraph extends AbstractCallGraph<CSCallSite, CSMethod> {
                 .flatMap(this::edgesOutOf);
     }
 
+    @Override
+    public int getNumberOfEdges() {
+        return nEdges;
+    }
+
     @Override
     public boolean isRelevant(Stmt stmt) {
         throw new UnsupportedOperationException();
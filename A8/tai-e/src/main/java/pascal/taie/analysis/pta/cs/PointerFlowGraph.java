@@ -48,6 +48,13 @@ class PointerFlowGraph {
         return successors.put(source, target);
     }
 
+    /**
+     * @return the pointers which have successors in the PFG.
+     */
+    Set<Pointer> getNodes() {
+        return successors.keySet();
+    }
+
     /**
      * @return successors of given pointer in the PFG.
      */
@@ -72,6 +72,19 @@ public class Solver {
 
     private static final Logger logger = LogManager.getLogger(Solver.class);
 
+    /**
+     * Key of the number of the context-sensitive methods restored from
+     * option {@code base}, which is stored in the result.
+     */
+    public static final String RESTORED_METHODS = "restored-methods";
+
+    /**
+     * Key of the number of the context-sensitive methods whose statements
+     * are processed by this solver, i.e., the reachable methods which are
+     * not restored, which is stored in the result.
+     */
+    public static final String PROCESSED_METHODS = "processed-methods";
+
     private final AnalysisOptions options;
 
     private final HeapModel heapModel;
@@ -92,6 +105,10 @@ public class Solver {
 
     private PointerAnalysisResult result;
 
+    private int nRestoredMethods;
+
+    private int nProcessedMethods;
+
     Solver(AnalysisOptions options, HeapModel heapModel,
            ContextSelector contextSelector) {
         this.options = options;
@@ -115,6 +132,15 @@ public class Solver {
     void solve() {
         initialize();
         analyze();
+        String snapshot = options.getString("snapshot");
+        if (snapshot != null) {
+            SolverSnapshot.save(snapshot, csManager, callGraph,
+                    pointerFlowGraph, taintAnalysis);
+        }
+        logger.info("{} methods restored, {} methods processed",
+                nRestoredMethods, nProcessedMethods);
+        getResult().storeResult(RESTORED_METHODS, nRestoredMethods);
+        getResult().storeResult(PROCESSED_METHODS, nProcessedMethods);
         taintAnalysis.onFinish();
     }
 
@@ -124,6 +150,15 @@ public class Solver {
         pointerFlowGraph = new PointerFlowGraph();
         workList = new WorkList();
         taintAnalysis = new TaintAnalysiss(this);
+        String base = options.getString("base");
+        if (base != null) {
+            // resume from the state of a prior run, so that only the
+            // statements and objects which are new to it are processed
+            SolverSnapshot.load(base, heapModel, csManager, callGraph,
+                    pointerFlowGraph, taintAnalysis);
+            callGraph.reachableMethods().forEach(this::registerTaintTransfers);
+            nRestoredMethods = callGraph.getNumberOfMethods();
+        }
         // process program entry, i.e., main method
         Context defContext = contextSelector.getEmptyContext();
         JMethod main = World.get().getMainMethod();
@@ -139,9 +174,29 @@ public class Solver {
         // TODO - finish me
         if (!callGraph.addReachableMethod(csMethod))
             return;
+        ++nProcessedMethods;
+        registerTaintTransfers(csMethod);
         csMethod.getMethod().getIR().getStmts().forEach(stmt -> stmt.accept(new StmtProcessor(csMethod)));
     }
 
+    /**
+     * Records the call sites in given method which may transfer taint
+     * objects from their arguments.
+     */
+    private void registerTaintTransfers(CSMethod csMethod) {
+        Context context = csMethod.getContext();
+        for (Stmt s : csMethod.getMethod().getIR().getStmts()) {
+            if (s instanceof Invoke inv) {
+                inv.getInvokeExp().getArgs().forEach(arg -> {
+                    CSVar csvar = csManager.getCSVar(context, arg);
+                    Set<Invoke> invokes = taintTransfers.getOrDefault(csvar, new HashSet<>());
+                    invokes.add(inv);
+                    taintTransfers.put(csvar, invokes);
+                });
+            }
+        }
+    }
+
     /**
      * Processes the statements in context-sensitive new reachable methods.
      */
@@ -223,17 +278,6 @@ public class Solver {
                 }
                 transferTaint(csManager.getCSCallSite(context, stmt), m, null);
             }
-            List<Stmt> stmts = csMethod.getMethod().getIR().getStmts();
-            for(Stmt s: stmts){
-                if(s instanceof Invoke inv){
-                    inv.getInvokeExp().getArgs().forEach(arg -> {
-                        CSVar csvar = csManager.getCSVar(context, arg);
-                        Set<Invoke> invokes = taintTransfers.getOrDefault(csvar, new HashSet<>());
-                        invokes.add(inv);
-                        taintTransfers.put(csvar, invokes);
-                    });
-                }
-            }
             return null;
         }
     }
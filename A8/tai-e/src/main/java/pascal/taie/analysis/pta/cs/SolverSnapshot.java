@@ -0,0 +1,580 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.cs;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.World;
+import pascal.taie.analysis.graph.callgraph.CallKind;
+import pascal.taie.analysis.graph.callgraph.Edge;
+import pascal.taie.analysis.pta.core.cs.CSCallGraph;
+import pascal.taie.analysis.pta.core.cs.context.Context;
+import pascal.taie.analysis.pta.core.cs.context.ListContext;
+import pascal.taie.analysis.pta.core.cs.element.ArrayIndex;
+import pascal.taie.analysis.pta.core.cs.element.CSCallSite;
+import pascal.taie.analysis.pta.core.cs.element.CSManager;
+import pascal.taie.analysis.pta.core.cs.element.CSMethod;
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.analysis.pta.core.cs.element.CSVar;
+import pascal.taie.analysis.pta.core.cs.element.InstanceField;
+import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.analysis.pta.core.cs.element.StaticField;
+import pascal.taie.analysis.pta.core.heap.HeapModel;
+import pascal.taie.analysis.pta.core.heap.MergedObj;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.analysis.pta.plugin.taint.TaintAnalysiss;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.New;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.JField;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.Type;
+import pascal.taie.language.type.TypeSystem;
+import pascal.taie.util.AnalysisException;
+import pascal.taie.util.collection.Maps;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * State of {@link Solver} saved to a file, i.e., the reachable
+ * context-sensitive methods, the call edges, the pointer flow graph and
+ * the points-to sets, from which the solver of a later run is resumed.
+ * <p>
+ * The elements of the state are identified by stable names: methods and
+ * fields by their signatures, statements and variables by their indexes in
+ * the IR of their methods, heap objects by their allocation sites (taint
+ * objects by their source calls and types), and contexts by their elements,
+ * i.e., call sites, heap objects or types. Thus, the state can be loaded
+ * into a later run whose world contains the classes of the run from which
+ * the state was saved, provided that the classes are unchanged and the
+ * heap model and the taint configuration are the same.
+ * <p>
+ * The file consists of a header and the following tables, whose records
+ * refer to the records of the preceding tables by their indexes: methods,
+ * objects, contexts, context-sensitive objects and pointers. They are
+ * followed by the reachable methods, the entry methods, the call edges,
+ * the PFG edges and the points-to sets.
+ */
+final class SolverSnapshot {
+
+    private static final Logger logger = LogManager.getLogger(SolverSnapshot.class);
+
+    private static final int MAGIC = 0x54505453; // "TPTS"
+
+    private static final int VERSION = 1;
+
+    private static final CallKind[] KINDS = CallKind.values();
+
+    // kinds of objects
+
+    private static final byte NEW_OBJ = 0;
+
+    private static final byte TAINT_OBJ = 1;
+
+    // kinds of context elements
+
+    private static final byte CALL_SITE = 0;
+
+    private static final byte OBJ = 1;
+
+    private static final byte TYPE = 2;
+
+    // kinds of pointers
+
+    private static final byte VAR = 0;
+
+    private static final byte STATIC_FIELD = 1;
+
+    private static final byte INSTANCE_FIELD = 2;
+
+    private static final byte ARRAY_INDEX = 3;
+
+    private SolverSnapshot() {
+    }
+
+    /**
+     * Saves the state of a solver to given file.
+     */
+    static void save(String file, CSManager csManager, CSCallGraph callGraph,
+                     PointerFlowGraph pointerFlowGraph,
+                     TaintAnalysiss taintAnalysis) {
+        logger.info("Saving solver snapshot to {} ...", file);
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(file)))) {
+            new Writer(taintAnalysis).write(out,
+                    csManager, callGraph, pointerFlowGraph);
+        } catch (IOException e) {
+            throw new AnalysisException("Failed to save solver snapshot", e);
+        }
+    }
+
+    /**
+     * Loads the state saved in given file into the given (empty)
+     * data structures of a solver.
+     */
+    static void load(String file, HeapModel heapModel, CSManager csManager,
+                     CSCallGraph callGraph, PointerFlowGraph pointerFlowGraph,
+                     TaintAnalysiss taintAnalysis) {
+        logger.info("Loading solver snapshot from {} ...", file);
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(file)))) {
+            new Reader(in, heapModel, csManager, taintAnalysis)
+                    .read(callGraph, pointerFlowGraph);
+        } catch (IOException e) {
+            throw new AnalysisException("Failed to load solver snapshot", e);
+        }
+    }
+
+    /**
+     * Records of the elements of a kind, and the indexes of the elements.
+     */
+    private static class Table {
+
+        private final Map<Object, Integer> ids = Maps.newMap();
+
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        private final DataOutputStream out = new DataOutputStream(bytes);
+
+        /**
+         * @return the index of given element, or null if it is not
+         * in this table yet.
+         */
+        private Integer getId(Object element) {
+            return ids.get(element);
+        }
+
+        /**
+         * Adds given element, whose record has just been written to
+         * {@link #out}, to this table.
+         *
+         * @return the index of the element.
+         */
+        private int add(Object element) {
+            int id = ids.size();
+            ids.put(element, id);
+            return id;
+        }
+
+        private void writeTo(DataOutputStream target) throws IOException {
+            target.writeInt(ids.size());
+            bytes.writeTo(target);
+        }
+    }
+
+    private static class Writer {
+
+        private final TaintAnalysiss taintAnalysis;
+
+        private final Table methods = new Table();
+
+        private final Table objs = new Table();
+
+        private final Table contexts = new Table();
+
+        private final Table csObjs = new Table();
+
+        private final Table pointers = new Table();
+
+        private Writer(TaintAnalysiss taintAnalysis) {
+            this.taintAnalysis = taintAnalysis;
+        }
+
+        private void write(DataOutputStream out, CSManager csManager,
+                           CSCallGraph callGraph, PointerFlowGraph pointerFlowGraph)
+                throws IOException {
+            // the records of the elements are collected in the tables
+            // while the graphs are written to the body
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream body = new DataOutputStream(bytes);
+            body.writeInt(callGraph.getNumberOfMethods());
+            for (CSMethod csMethod : callGraph.reachableMethods().toList()) {
+                writeCSMethod(body, csMethod);
+            }
+            body.writeInt((int) callGraph.entryMethods().count());
+            for (CSMethod csMethod : callGraph.entryMethods().toList()) {
+                writeCSMethod(body, csMethod);
+            }
+            body.writeInt(callGraph.getNumberOfEdges());
+            for (Edge<CSCallSite, CSMethod> edge : callGraph.edges().toList()) {
+                CSCallSite csCallSite = edge.getCallSite();
+                body.writeByte(edge.getKind().ordinal());
+                body.writeInt(context(csCallSite.getContext()));
+                writeStmt(body, csCallSite.getCallSite().getContainer(),
+                        csCallSite.getCallSite().getIndex());
+                writeCSMethod(body, edge.getCallee());
+            }
+            Set<Pointer> sources = pointerFlowGraph.getNodes();
+            body.writeInt(sources.stream()
+                    .mapToInt(p -> pointerFlowGraph.getSuccsOf(p).size())
+                    .sum());
+            for (Pointer source : sources) {
+                for (Pointer target : pointerFlowGraph.getSuccsOf(source)) {
+                    body.writeInt(pointer(source));
+                    body.writeInt(pointer(target));
+                }
+            }
+            List<Pointer> nonEmpty = getPointers(csManager).stream()
+                    .filter(p -> !p.getPointsToSet().isEmpty())
+                    .toList();
+            body.writeInt(nonEmpty.size());
+            for (Pointer pointer : nonEmpty) {
+                body.writeInt(pointer(pointer));
+                body.writeInt(pointer.getPointsToSet().size());
+                for (CSObj csObj : pointer.getPointsToSet()) {
+                    body.writeInt(csObj(csObj));
+                }
+            }
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            methods.writeTo(out);
+            objs.writeTo(out);
+            contexts.writeTo(out);
+            csObjs.writeTo(out);
+            pointers.writeTo(out);
+            bytes.writeTo(out);
+        }
+
+        private static List<Pointer> getPointers(CSManager csManager) {
+            List<Pointer> pointers = new ArrayList<>();
+            pointers.addAll(csManager.getCSVars());
+            pointers.addAll(csManager.getStaticFields());
+            pointers.addAll(csManager.getInstanceFields());
+            pointers.addAll(csManager.getArrayIndexes());
+            return pointers;
+        }
+
+        private void writeCSMethod(DataOutputStream out, CSMethod csMethod)
+                throws IOException {
+            out.writeInt(context(csMethod.getContext()));
+            out.writeInt(method(csMethod.getMethod()));
+        }
+
+        private void writeStmt(DataOutputStream out, JMethod method, int index)
+                throws IOException {
+            out.writeInt(method(method));
+            out.writeInt(index);
+        }
+
+        private int method(JMethod method) throws IOException {
+            Integer id = methods.getId(method);
+            if (id == null) {
+                methods.out.writeUTF(method.getSignature());
+                id = methods.add(method);
+            }
+            return id;
+        }
+
+        private int obj(Obj obj) throws IOException {
+            Integer id = objs.getId(obj);
+            if (id == null) {
+                if (taintAnalysis.isTaint(obj)) {
+                    Invoke source = (Invoke) obj.getAllocation();
+                    // the method id may add a record to another table,
+                    // thus it is obtained before writing this record
+                    int method = method(source.getContainer());
+                    objs.out.writeByte(TAINT_OBJ);
+                    objs.out.writeInt(method);
+                    objs.out.writeInt(source.getIndex());
+                    objs.out.writeUTF(obj.getType().getName());
+                } else {
+                    New allocSite = getAllocSite(obj);
+                    int method = method(allocSite.getContainer());
+                    objs.out.writeByte(NEW_OBJ);
+                    objs.out.writeInt(method);
+                    objs.out.writeInt(allocSite.getIndex());
+                }
+                id = objs.add(obj);
+            }
+            return id;
+        }
+
+        /**
+         * @return an allocation site for which the heap model gives
+         * the given object.
+         */
+        private static New getAllocSite(Obj obj) {
+            if (obj.getAllocation() instanceof New allocSite) {
+                return allocSite;
+            }
+            if (obj instanceof MergedObj merged) {
+                // a merged object is given for any of the objects it merges
+                for (Obj represented : merged.getAllocation()) {
+                    if (represented.getAllocation() instanceof New allocSite) {
+                        return allocSite;
+                    }
+                }
+            }
+            throw new AnalysisException(
+                    "Object " + obj + " is not supported by solver snapshot");
+        }
+
+        private int context(Context context) throws IOException {
+            Integer id = contexts.getId(context);
+            if (id == null) {
+                int length = context.getLength();
+                byte[] kinds = new byte[length];
+                int[] firsts = new int[length];
+                int[] seconds = new int[length];
+                String[] types = new String[length];
+                for (int i = 0; i < length; ++i) {
+                    Object element = context.getElementAt(i);
+                    if (element instanceof Invoke callSite) {
+                        kinds[i] = CALL_SITE;
+                        firsts[i] = method(callSite.getContainer());
+                        seconds[i] = callSite.getIndex();
+                    } else if (element instanceof Obj obj) {
+                        kinds[i] = OBJ;
+                        firsts[i] = obj(obj);
+                    } else if (element instanceof Type type) {
+                        kinds[i] = TYPE;
+                        types[i] = type.getName();
+                    } else {
+                        throw new AnalysisException("Context element " +
+                                element + " is not supported by solver snapshot");
+                    }
+                }
+                contexts.out.writeInt(length);
+                for (int i = 0; i < length; ++i) {
+                    contexts.out.writeByte(kinds[i]);
+                    switch (kinds[i]) {
+                        case CALL_SITE -> {
+                            contexts.out.writeInt(firsts[i]);
+                            contexts.out.writeInt(seconds[i]);
+                        }
+                        case OBJ -> contexts.out.writeInt(firsts[i]);
+                        default -> contexts.out.writeUTF(types[i]);
+                    }
+                }
+                id = contexts.add(context);
+            }
+            return id;
+        }
+
+        private int csObj(CSObj csObj) throws IOException {
+            Integer id = csObjs.getId(csObj);
+            if (id == null) {
+                int context = context(csObj.getContext());
+                int obj = obj(csObj.getObject());
+                csObjs.out.writeInt(context);
+                csObjs.out.writeInt(obj);
+                id = csObjs.add(csObj);
+            }
+            return id;
+        }
+
+        private int pointer(Pointer pointer) throws IOException {
+            Integer id = pointers.getId(pointer);
+            if (id == null) {
+                if (pointer instanceof CSVar csVar) {
+                    int context = context(csVar.getContext());
+                    int method = method(csVar.getVar().getMethod());
+                    pointers.out.writeByte(VAR);
+                    pointers.out.writeInt(context);
+                    pointers.out.writeInt(method);
+                    pointers.out.writeInt(csVar.getVar().getIndex());
+                } else if (pointer instanceof StaticField staticField) {
+                    pointers.out.writeByte(STATIC_FIELD);
+                    pointers.out.writeUTF(staticField.getField().getSignature());
+                } else if (pointer instanceof InstanceField instanceField) {
+                    int base = csObj(instanceField.getBase());
+                    pointers.out.writeByte(INSTANCE_FIELD);
+                    pointers.out.writeInt(base);
+                    pointers.out.writeUTF(instanceField.getField().getSignature());
+                } else {
+                    int array = csObj(((ArrayIndex) pointer).getArray());
+                    pointers.out.writeByte(ARRAY_INDEX);
+                    pointers.out.writeInt(array);
+                }
+                id = pointers.add(pointer);
+            }
+            return id;
+        }
+    }
+
+    private static class Reader {
+
+        private final DataInputStream in;
+
+        private final HeapModel heapModel;
+
+        private final CSManager csManager;
+
+        private final TaintAnalysiss taintAnalysis;
+
+        private final ClassHierarchy hierarchy = World.get().getClassHierarchy();
+
+        private final TypeSystem typeSystem = World.get().getTypeSystem();
+
+        private JMethod[] methods;
+
+        private Obj[] objs;
+
+        private Context[] contexts;
+
+        private CSObj[] csObjs;
+
+        private Pointer[] pointers;
+
+        private Reader(DataInputStream in, HeapModel heapModel,
+                       CSManager csManager, TaintAnalysiss taintAnalysis) {
+            this.in = in;
+            this.heapModel = heapModel;
+            this.csManager = csManager;
+            this.taintAnalysis = taintAnalysis;
+        }
+
+        private void read(CSCallGraph callGraph, PointerFlowGraph pointerFlowGraph)
+                throws IOException {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new AnalysisException("Invalid solver snapshot");
+            }
+            methods = new JMethod[in.readInt()];
+            for (int i = 0; i < methods.length; ++i) {
+                String signature = in.readUTF();
+                methods[i] = hierarchy.getMethod(signature);
+                if (methods[i] == null) {
+                    throw new AnalysisException("Method " + signature +
+                            " in solver snapshot is not found");
+                }
+            }
+            objs = new Obj[in.readInt()];
+            for (int i = 0; i < objs.length; ++i) {
+                objs[i] = readObj();
+            }
+            contexts = new Context[in.readInt()];
+            for (int i = 0; i < contexts.length; ++i) {
+                contexts[i] = readContext();
+            }
+            csObjs = new CSObj[in.readInt()];
+            for (int i = 0; i < csObjs.length; ++i) {
+                Context context = contexts[in.readInt()];
+                csObjs[i] = csManager.getCSObj(context, objs[in.readInt()]);
+            }
+            pointers = new Pointer[in.readInt()];
+            for (int i = 0; i < pointers.length; ++i) {
+                pointers[i] = readPointer();
+            }
+            // the call sites of the methods are collected when the methods
+            // are added, thus they are added before the call edges
+            for (int n = in.readInt(); n > 0; --n) {
+                callGraph.addReachableMethod(readCSMethod());
+            }
+            for (int n = in.readInt(); n > 0; --n) {
+                callGraph.addEntryMethod(readCSMethod());
+            }
+            for (int n = in.readInt(); n > 0; --n) {
+                CallKind kind = KINDS[in.readByte()];
+                Context context = contexts[in.readInt()];
+                Invoke callSite = (Invoke) readStmt();
+                callGraph.addEdge(new Edge<>(kind,
+                        csManager.getCSCallSite(context, callSite), readCSMethod()));
+            }
+            for (int n = in.readInt(); n > 0; --n) {
+                Pointer source = pointers[in.readInt()];
+                pointerFlowGraph.addEdge(source, pointers[in.readInt()]);
+            }
+            for (int n = in.readInt(); n > 0; --n) {
+                Pointer pointer = pointers[in.readInt()];
+                for (int size = in.readInt(); size > 0; --size) {
+                    pointer.getPointsToSet().addObject(csObjs[in.readInt()]);
+                }
+            }
+            logger.info("Loaded {} reachable methods, {} call edges and {} pointers",
+                    callGraph.getNumberOfMethods(), callGraph.getNumberOfEdges(),
+                    pointers.length);
+        }
+
+        private Stmt readStmt() throws IOException {
+            JMethod method = methods[in.readInt()];
+            return method.getIR().getStmt(in.readInt());
+        }
+
+        private CSMethod readCSMethod() throws IOException {
+            Context context = contexts[in.readInt()];
+            return csManager.getCSMethod(context, methods[in.readInt()]);
+        }
+
+        private Obj readObj() throws IOException {
+            byte kind = in.readByte();
+            Stmt stmt = readStmt();
+            if (kind == TAINT_OBJ) {
+                Type type = typeSystem.getType(in.readUTF());
+                return taintAnalysis.makeTaint((Invoke) stmt, type);
+            } else {
+                return heapModel.getObj((New) stmt);
+            }
+        }
+
+        private Context readContext() throws IOException {
+            Object[] elements = new Object[in.readInt()];
+            for (int i = 0; i < elements.length; ++i) {
+                elements[i] = switch (in.readByte()) {
+                    case CALL_SITE -> readStmt();
+                    case OBJ -> objs[in.readInt()];
+                    default -> typeSystem.getType(in.readUTF());
+                };
+            }
+            return ListContext.make(elements);
+        }
+
+        private Pointer readPointer() throws IOException {
+            return switch (in.readByte()) {
+                case VAR -> {
+                    Context context = contexts[in.readInt()];
+                    JMethod method = methods[in.readInt()];
+                    yield csManager.getCSVar(context,
+                            method.getIR().getVar(in.readInt()));
+                }
+                case STATIC_FIELD -> csManager.getStaticField(readField());
+                case INSTANCE_FIELD -> {
+                    CSObj base = csObjs[in.readInt()];
+                    yield csManager.getInstanceField(base, readField());
+                }
+                default -> csManager.getArrayIndex(csObjs[in.readInt()]);
+            };
+        }
+
+        private JField readField() throws IOException {
+            String signature = in.readUTF();
+            JField field = hierarchy.getField(signature);
+            if (field == null) {
+                throw new AnalysisException("Field " + signature +
+                        " in solver snapshot is not found");
+            }
+            return field;
+        }
+    }
+}
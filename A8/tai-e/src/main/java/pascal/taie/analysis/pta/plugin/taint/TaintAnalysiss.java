@@ -25,10 +25,12 @@ package pascal.taie.analysis.pta.plugin.taint;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import pascal.taie.World;
+import pascal.taie.analysis.graph.callgraph.CallGraph;
 import pascal.taie.analysis.pta.PointerAnalysisResult;
 import pascal.taie.analysis.pta.core.cs.context.Context;
 import pascal.taie.analysis.pta.core.cs.element.CSCallSite;
 import pascal.taie.analysis.pta.core.cs.element.CSManager;
+import pascal.taie.analysis.pta.core.cs.element.CSMethod;
 import pascal.taie.analysis.pta.core.cs.element.CSObj;
 import pascal.taie.analysis.pta.core.cs.element.CSVar;
 import pascal.taie.analysis.pta.core.heap.Obj;
@@ -36,6 +38,7 @@ import pascal.taie.analysis.pta.cs.Solver;
 import pascal.taie.ir.exp.Var;
 import pascal.taie.ir.stmt.Invoke;
 import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.Type;
 import pascal.taie.util.collection.Pair;
 
 import java.util.*;
@@ -114,6 +117,13 @@ public class TaintAnalysiss {
         return ret;
     }
 
+    /**
+     * @return the taint object for given source call and type.
+     */
+    public Obj makeTaint(Invoke source, Type type) {
+        return manager.makeTaint(source, type);
+    }
+
     public boolean isTaint(Obj obj) {
         return manager.isTaint(obj);
     }
@@ -128,21 +138,30 @@ public class TaintAnalysiss {
         PointerAnalysisResult result = solver.getResult();
         // TODO - finish me
         // You could query pointer analysis results you need via variable result.
-        result.getCSCallGraph().reachableMethods().forEach(method->{
-            result.getCSCallGraph().getCallersOf(method).forEach(csCallSite->{
-                List<Var> args=csCallSite.getCallSite().getInvokeExp().getArgs();
-                for(int i=0;i<args.size();i++){
-                    if(config.getSinks().contains(new Sink(method.getMethod(), i))) {
-                        Set<Obj> pts = result.getPointsToSet(args.get(i));
-                        for(Obj obj : pts) {
-                            if(manager.isTaint(obj)) {
-                                taintFlows.add(new TaintFlow(manager.getSourceCall(obj), csCallSite.getCallSite(), i));
+        // only the callers of sink methods can pass taint objects to
+        // sinks, thus only they are scanned
+        CallGraph<CSCallSite, CSMethod> callGraph = result.getCSCallGraph();
+        Set<JMethod> sinkMethods = new HashSet<>();
+        config.getSinks().forEach(sink -> sinkMethods.add(sink.method()));
+        callGraph.reachableMethods()
+                .filter(csMethod -> sinkMethods.contains(csMethod.getMethod()))
+                .forEach(csMethod -> {
+                    JMethod sinkMethod = csMethod.getMethod();
+                    callGraph.getCallersOf(csMethod).forEach(csCallSite -> {
+                        Invoke callSite = csCallSite.getCallSite();
+                        List<Var> args = callSite.getInvokeExp().getArgs();
+                        for (int i = 0; i < args.size(); i++) {
+                            if (config.getSinks().contains(new Sink(sinkMethod, i))) {
+                                for (Obj obj : result.getPointsToSet(args.get(i))) {
+                                    if (manager.isTaint(obj)) {
+                                        taintFlows.add(new TaintFlow(
+                                                manager.getSourceCall(obj), callSite, i));
+                                    }
+                                }
                             }
                         }
-                    }
-                }
-            });
-        });
+                    });
+                });
         return taintFlows;
     }
 }
@@ -0,0 +1,100 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.callgraph;
+
+import org.junit.Test;
+import pascal.taie.util.graph.Graph;
+import pascal.taie.util.graph.SimpleGraph;
+
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ReachabilityIndexTest {
+
+    /**
+     * 1 -> 2 -> 3 -> 1, 3 -> 4, 4 -> 5, 6 -> 4, 7 (isolated).
+     */
+    private static SimpleGraph<Integer> cyclicGraph() {
+        SimpleGraph<Integer> graph = new SimpleGraph<>();
+        graph.addEdge(1, 2);
+        graph.addEdge(2, 3);
+        graph.addEdge(3, 1);
+        graph.addEdge(3, 4);
+        graph.addEdge(4, 5);
+        graph.addEdge(6, 4);
+        graph.addNode(7);
+        return graph;
+    }
+
+    @Test
+    public void testReaches() {
+        ReachabilityIndex<Integer> index = new ReachabilityIndex<>(cyclicGraph());
+        assertEquals(5, index.getNumberOfSCCs());
+        assertTrue(index.reaches(1, 1));
+        assertTrue(index.reaches(2, 1));
+        assertTrue(index.reaches(3, 2));
+        assertTrue(index.reaches(1, 5));
+        assertTrue(index.reaches(6, 5));
+        assertTrue(index.reaches(7, 7));
+        assertFalse(index.reaches(4, 3));
+        assertFalse(index.reaches(6, 1));
+        assertFalse(index.reaches(5, 4));
+        assertFalse(index.reaches(7, 1));
+        assertFalse(index.reaches(1, 8));
+        assertFalse(index.reaches(8, 8));
+    }
+
+    @Test
+    public void testReachableFrom() {
+        ReachabilityIndex<Integer> index = new ReachabilityIndex<>(cyclicGraph());
+        assertEquals(Set.of(1, 2, 3, 4, 5), Set.copyOf(index.reachableFrom(2)));
+        assertEquals(5, index.reachableFrom(2).size());
+        assertEquals(Set.of(4, 5, 6), Set.copyOf(index.reachableFrom(6)));
+        assertEquals(Set.of(5), Set.copyOf(index.reachableFrom(5)));
+        assertEquals(Set.of(7), Set.copyOf(index.reachableFrom(7)));
+        assertTrue(index.reachableFrom(8).isEmpty());
+        assertTrue(index.reachableFrom(1).contains(4));
+        assertFalse(index.reachableFrom(4).contains(1));
+    }
+
+    @Test
+    public void testProject() {
+        // maps 1, 2, 3 to 0 (a self-loop), 4, 6 to 1, and 5, 7 to 2
+        Graph<Integer> projected = ReachabilityIndex.project(cyclicGraph(),
+                n -> n <= 3 ? 0 : n == 4 || n == 6 ? 1 : 2);
+        assertEquals(3, projected.getNumberOfNodes());
+        assertTrue(projected.hasEdge(0, 0));
+        assertTrue(projected.hasEdge(0, 1));
+        assertTrue(projected.hasEdge(1, 1));
+        assertTrue(projected.hasEdge(1, 2));
+        assertFalse(projected.hasEdge(0, 2));
+        ReachabilityIndex<Integer> index = new ReachabilityIndex<>(projected);
+        assertEquals(3, index.getNumberOfSCCs());
+        assertTrue(index.reaches(0, 2));
+        assertFalse(index.reaches(2, 0));
+        assertEquals(Set.of(1, 2), Set.copyOf(index.reachableFrom(1)));
+    }
+}
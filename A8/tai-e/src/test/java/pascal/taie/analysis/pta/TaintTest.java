@@ -23,7 +23,12 @@
 package pascal.taie.analysis.pta;
 
 import org.junit.Test;
+import pascal.taie.World;
 import pascal.taie.analysis.Tests;
+import pascal.taie.analysis.pta.cs.CSPTA;
+import pascal.taie.analysis.pta.cs.Solver;
+
+import static org.junit.Assert.assertEquals;
 
 public class TaintTest {
 
@@ -65,6 +70,27 @@ public class TaintTest {
                 "cs:2-call;taint-config:src/test/resources/pta/taint/taint-config.yml");
     }
 
+    @Test
+    public void testSnapshot() {
+        String snapshot = "output/InterTaintTransfer-cspta.snapshot";
+        Tests.testCSPTA(DIR, "InterTaintTransfer",
+                "cs:2-call;taint-config:src/test/resources/pta/taint/taint-config.yml;" +
+                        "snapshot:" + snapshot);
+        PointerAnalysisResult result = World.get().getResult(CSPTA.ID);
+        int reachable = result.getCSCallGraph().getNumberOfMethods();
+        assertEquals(0, (int) result.getResult(Solver.RESTORED_METHODS));
+        assertEquals(reachable, (int) result.getResult(Solver.PROCESSED_METHODS));
+        // the solver resumed from the snapshot starts with all reachable
+        // methods, thus it processes no methods, and reaches the same result
+        Tests.testCSPTA(DIR, "InterTaintTransfer",
+                "cs:2-call;taint-config:src/test/resources/pta/taint/taint-config.yml;" +
+                        "base:" + snapshot);
+        result = World.get().getResult(CSPTA.ID);
+        assertEquals(reachable, (int) result.getResult(Solver.RESTORED_METHODS));
+        assertEquals(0, (int) result.getResult(Solver.PROCESSED_METHODS));
+        assertEquals(reachable, result.getCSCallGraph().getNumberOfMethods());
+    }
+
     @Test
     public void testTaintInList() {
         Tests.testCSPTA(DIR, "TaintInList",